@@ -1,8 +1,8 @@
 #!/bin/bash
 
-test_cmd="/mnt/sdb/hexiang/openjdk-oracle-23.0.1/bin/java -javaagent:/mnt/sdb/hexiang/.cache/JetBrains/RemoteDev/dist/a3c4f5cf4aad7_ideaIU-243.19420.21/lib/idea_rt.jar=40087:/mnt/sdb/hexiang/.cache/JetBrains/RemoteDev/dist/a3c4f5cf4aad7_ideaIU-243.19420.21/bin -Dfile.encoding=UTF-8 -Dsun.stdout.encoding=UTF-8 -Dsun.stderr.encoding=UTF-8 -classpath /mnt/sdb/hexiang/string-benchmark/out/production/string-benchmark:/mnt/sdb/hexiang/.m2/repository/org/openjdk/jmh/jmh-core/1.37/jmh-core-1.37.jar:/mnt/sdb/hexiang/.m2/repository/net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar:/mnt/sdb/hexiang/.m2/repository/org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar:/mnt/sdb/hexiang/.m2/repository/org/openjdk/jmh/jmh-generator-annprocess/1.37/jmh-generator-annprocess-1.37.jar org.openjdk.jmh.Main"
-individuals=("Concat" "Compare" "Match")
-combines=("ConcatSub" "ConcatMatch")
+test_cmd="/mnt/sdb/hexiang/openjdk-oracle-23.0.1/bin/java --add-modules=jdk.incubator.vector -javaagent:/mnt/sdb/hexiang/.cache/JetBrains/RemoteDev/dist/a3c4f5cf4aad7_ideaIU-243.19420.21/lib/idea_rt.jar=40087:/mnt/sdb/hexiang/.cache/JetBrains/RemoteDev/dist/a3c4f5cf4aad7_ideaIU-243.19420.21/bin -Dfile.encoding=UTF-8 -Dsun.stdout.encoding=UTF-8 -Dsun.stderr.encoding=UTF-8 -classpath /mnt/sdb/hexiang/string-benchmark/out/production/string-benchmark:/mnt/sdb/hexiang/.m2/repository/org/openjdk/jmh/jmh-core/1.37/jmh-core-1.37.jar:/mnt/sdb/hexiang/.m2/repository/net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar:/mnt/sdb/hexiang/.m2/repository/org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar:/mnt/sdb/hexiang/.m2/repository/org/openjdk/jmh/jmh-generator-annprocess/1.37/jmh-generator-annprocess-1.37.jar org.openjdk.jmh.Main"
+individuals=("Concat" "Compare" "Match" "Traverse" "Insert" "Hash" "MappedFile" "StreamIngest")
+combines=("ConcatSub" "ConcatMatch" "StreamMatch")
 
 for test in "${individuals[@]}"
 do
@@ -12,4 +12,17 @@ done
 for test in "${combines[@]}"
 do
   $test_cmd "CombinedMicros.$test.*" -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/CombinedMicros/logs/$test-results.json"
-done
\ No newline at end of file
+done
+
+for threads in 1 2 4 8 16 32 64
+do
+  $test_cmd "IndividualMicros.ConcurrentAppend.*" -t $threads -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/ConcurrentAppend-t$threads-results.json"
+done
+
+$test_cmd "IndividualMicros.PieceTable.*" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/PieceTable-results.json"
+$test_cmd "IndividualMicros.SliceRetention.*" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/SliceRetention-results.json"
+$test_cmd "IndividualMicros.Compare.affixIndexBuild.*" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/AffixIndexBuild-results.json"
+$test_cmd "IndividualMicros.Compare.nGramIndexBuild" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/NGramIndexBuild-results.json"
+$test_cmd "IndividualMicros.CompactRope.*" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/CompactRope-results.json"
+$test_cmd "IndividualMicros.RopeWrite.*" -prof gc -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/IndividualMicros/logs/RopeWrite-results.json"
+$test_cmd "CombinedMicros.ConcatSub.persistentRopeLarge" -p concatIter=10000,100000,1000000 -rf json -rff "/mnt/sdb/hexiang/string-benchmark/src/CombinedMicros/logs/PersistentRopeLarge-results.json"
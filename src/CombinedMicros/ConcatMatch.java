@@ -1,7 +1,9 @@
 package CombinedMicros;
 
+import CustomString.ArrayRope;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import utils.PatternCache;
 
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -61,6 +63,23 @@ public class ConcatMatch {
         }
     }
 
+    @Benchmark
+    public void stringBuilderRegexFindCached(ConcatMatchState state, Blackhole bh) {
+        String result = stringBuilderRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allRegexFind(result, PatternCache.shared().get(state.pattern), bh);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void stringBuilderRegexFindCachedContended(ConcatMatchState state, Blackhole bh) {
+        String result = stringBuilderRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allRegexFind(result, PatternCache.shared().get(state.pattern), bh);
+        }
+    }
+
     @Benchmark
     public void stringJoinerIndexOf(ConcatMatchState state, Blackhole bh) {
         String result = stringJoinerRepeat(state.str1, state.str2, state.concatIter);
@@ -88,4 +107,52 @@ public class ConcatMatch {
         }
     }
 
-}
+    public static ArrayRope arrayRopeRepeat(String head, String tail, int repeat) {
+        ArrayRope rope = new ArrayRope(head);
+        for (int i = 0; i < repeat; i++) {
+            rope.append(tail);
+        }
+        return rope;
+    }
+
+    @Benchmark
+    public void arrayRopeIndexOf(ConcatMatchState state, Blackhole bh) {
+        ArrayRope result = arrayRopeRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allIndexOf(result, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeToStringIndexOf(ConcatMatchState state, Blackhole bh) {
+        String result = arrayRopeRepeat(state.str1, state.str2, state.concatIter).toString();
+        for (int i = 0; i < state.matchIter; i++) {
+            allIndexOf(result, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeRegexFind(ConcatMatchState state, Blackhole bh) {
+        ArrayRope result = arrayRopeRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allRegexFind(result.regexView(), state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeRegexSplit(ConcatMatchState state, Blackhole bh) {
+        ArrayRope result = arrayRopeRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allRegexSplit(result.regexView(), state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void stringBuilderRegexSplit(ConcatMatchState state, Blackhole bh) {
+        String result = stringBuilderRepeat(state.str1, state.str2, state.concatIter);
+        for (int i = 0; i < state.matchIter; i++) {
+            allRegexSplit(result, state.pattern, bh);
+        }
+    }
+
+}
\ No newline at end of file
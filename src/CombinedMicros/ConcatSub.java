@@ -1,6 +1,8 @@
 package CombinedMicros;
 
 import CustomString.ArrayRope;
+import CustomString.BTreeRope;
+import CustomString.PersistentRope;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
@@ -43,6 +45,49 @@ public class ConcatSub {
         }
     }
 
+    @State(Scope.Thread)
+    public static class ImmutableConcatState {
+//        capped for ArrayRope: its concat copies the piece array on every call, 10^6 concats would not finish.
+//        run.sh passes -p concatIter=10000,100000,1000000 to persistentRopeLarge alone
+        @Param({"10000", "100000"})
+        public int concatIter;
+        public final int stringSize = 5;
+        public final int subIter = 1000;
+        private final int seed = 0;
+        private final Random rand = new Random(seed);
+        public String str1;
+        public String str2;
+        @Setup
+        public void setup() {
+            str1 = makeRandomString(stringSize, rand);
+            str2 = makeRandomString(stringSize, rand);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CoalesceState {
+        public final int concatIter = 1000;
+        public final int subIter = 1000;
+        public final int stringSize = 1000;
+        @Param({"5", "16", "100", "1000"})
+        public int subStringSize;
+        private final int seed = 0;
+        private final Random rand = new Random(seed);
+        public ArrayRope src;
+        public final int[] subStringsIndices = new int[subIter];
+        @Setup
+        public void setup() {
+            for (int i = 0; i < subIter; i++) {
+                subStringsIndices[i] = i;
+            }
+            src = new ArrayRope(makeRandomString(stringSize, rand));
+            String str2 = makeRandomString(stringSize, rand);
+            for (int i = 0; i < concatIter; i++) {
+                src.append(str2);
+            }
+        }
+    }
+
     @Benchmark
     public void stringBuilderNoMat(ConcatSubState state, Blackhole bh) {
         StringBuilder srcBuilder = new StringBuilder(state.str1);
@@ -134,4 +179,96 @@ public class ConcatSub {
         }
         bh.consume(rope2);
     }
+
+    @Benchmark
+    public void bTreeRope(ConcatSubState state, Blackhole bh) {
+        BTreeRope rope = new BTreeRope(state.str1);
+        for (int i = 0; i < state.concatIter; i++) {
+            rope.append(state.str2);
+        }
+        BTreeRope rope2 = new BTreeRope();
+        for (int i : state.subStringsIndices) {
+            rope2.append(rope.subSequence(i, i + state.subStringSize));
+        }
+        String result = rope2.toString();
+        bh.consume(result);
+    }
+
+    @Benchmark
+    public void persistentRope(ConcatSubState state, Blackhole bh) {
+        PersistentRope rope = new PersistentRope(state.str1);
+        for (int i = 0; i < state.concatIter; i++) {
+            rope = rope.concat(state.str2);
+        }
+        PersistentRope rope2 = new PersistentRope();
+        for (int i : state.subStringsIndices) {
+            rope2 = rope2.concat(rope.subSequence(i, i + state.subStringSize));
+        }
+        String result = rope2.toString();
+        bh.consume(result);
+    }
+
+    @Benchmark
+    public void arrayRopeImmutableLarge(ImmutableConcatState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope(state.str1);
+        for (int i = 0; i < state.concatIter; i++) {
+            rope = rope.concat(state.str2);
+        }
+        for (int i = 0; i < state.subIter; i++) {
+            bh.consume(rope.subSequence(i, rope.length() - i));
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void persistentRopeLarge(ImmutableConcatState state, Blackhole bh) {
+        PersistentRope rope = new PersistentRope(state.str1);
+        for (int i = 0; i < state.concatIter; i++) {
+            rope = rope.concat(state.str2);
+        }
+        for (int i = 0; i < state.subIter; i++) {
+            bh.consume(rope.subSequence(i, rope.length() - i));
+        }
+        bh.consume(rope);
+    }
+
+    public static ArrayRope arrayRopeSubAppend(ArrayRope src, int[] subStringsIndices, int subStringSize, int coalesceThreshold) {
+        ArrayRope rope = new ArrayRope().setCoalesceThreshold(coalesceThreshold);
+        for (int i : subStringsIndices) {
+            rope.append(src.subSequence(i, i + subStringSize));
+        }
+        return rope;
+    }
+
+    @Benchmark
+    public void arrayRopeCoalesce(CoalesceState state, Blackhole bh) {
+        ArrayRope rope = arrayRopeSubAppend(state.src, state.subStringsIndices, state.subStringSize, 16);
+        bh.consume(rope.toString());
+    }
+
+    @Benchmark
+    public void arrayRopeNoCoalesce(CoalesceState state, Blackhole bh) {
+        ArrayRope rope = arrayRopeSubAppend(state.src, state.subStringsIndices, state.subStringSize, 0);
+        bh.consume(rope.toString());
+    }
+
+    @Benchmark
+    public void arrayRopeCoalesceCharAt(CoalesceState state, Blackhole bh) {
+        ArrayRope rope = arrayRopeSubAppend(state.src, state.subStringsIndices, state.subStringSize, 16);
+        int sum = 0;
+        for (int i = 0; i < rope.length(); i += 7) {
+            sum += rope.charAt(i);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayRopeNoCoalesceCharAt(CoalesceState state, Blackhole bh) {
+        ArrayRope rope = arrayRopeSubAppend(state.src, state.subStringsIndices, state.subStringSize, 0);
+        int sum = 0;
+        for (int i = 0; i < rope.length(); i += 7) {
+            sum += rope.charAt(i);
+        }
+        bh.consume(sum);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package CombinedMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utils.StreamMatcher;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static IndividualMicros.Match.allIndexOf;
+import static utils.Utils.makeRandomString;
+
+// every benchmark appends concatIter chunks and reports every match of the pattern as soon as its chunk arrived
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StreamMatch {
+    @State(Scope.Thread)
+    public static class StreamMatchState {
+        @Param({"100", "1000", "10000"})
+        public int concatIter;
+        @Param({"5", "20", "100"})
+        public int stringSize;
+        @Param({"3", "10"})
+        public int patternSize;
+        public final int chunkNum = 64;
+        private final int seed = 0;
+        private final Random rand = new Random(seed);
+        public String[] chunks;
+        public String pattern;
+        public StreamMatcher.Automaton automaton;
+
+        @Setup
+        public void setup() {
+            chunks = new String[chunkNum];
+            StringBuilder sample = new StringBuilder();
+            for (int i = 0; i < chunkNum; i++) {
+                chunks[i] = makeRandomString(stringSize, rand);
+                sample.append(chunks[i]);
+            }
+//            taken across a chunk boundary when the chunks are shorter than the pattern
+            int patternIndex = rand.nextInt(sample.length() - patternSize);
+            pattern = sample.substring(patternIndex, patternIndex + patternSize);
+            automaton = StreamMatcher.compile(pattern);
+        }
+    }
+
+    @Benchmark
+    public void stringBuilderRescan(StreamMatchState state, Blackhole bh) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < state.concatIter; i++) {
+            sb.append(state.chunks[i % state.chunkNum]);
+            allIndexOf(sb.toString(), state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void stringBuilderRescanTail(StreamMatchState state, Blackhole bh) {
+        StringBuilder sb = new StringBuilder();
+        int scanned = 0;
+        for (int i = 0; i < state.concatIter; i++) {
+            sb.append(state.chunks[i % state.chunkNum]);
+//            only the new chunk plus the pattern length - 1 chars before it can hold a new match
+            int index = sb.indexOf(state.pattern, Math.max(scanned - state.patternSize + 1, 0));
+            while (index >= 0) {
+                bh.consume(index);
+                index = sb.indexOf(state.pattern, index + 1);
+            }
+            scanned = sb.length();
+        }
+    }
+
+    @Benchmark
+    public void stringBuilderStreamMatcher(StreamMatchState state, Blackhole bh) {
+        StringBuilder sb = new StringBuilder();
+        StreamMatcher matcher = state.automaton.matcher(bh::consume);
+        for (int i = 0; i < state.concatIter; i++) {
+            String chunk = state.chunks[i % state.chunkNum];
+            sb.append(chunk);
+            matcher.feed(chunk);
+        }
+        bh.consume(sb);
+    }
+
+    @Benchmark
+    public void arrayRopeStreamMatcher(StreamMatchState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope();
+        StreamMatcher matcher = state.automaton.matcher(bh::consume);
+        for (int i = 0; i < state.concatIter; i++) {
+            String chunk = state.chunks[i % state.chunkNum];
+            rope.append(chunk);
+            matcher.feed(chunk);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void arrayRopeRescan(StreamMatchState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope();
+        for (int i = 0; i < state.concatIter; i++) {
+            rope.append(state.chunks[i % state.chunkNum]);
+            allIndexOf(rope, state.pattern, bh);
+        }
+    }
+}
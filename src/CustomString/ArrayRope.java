@@ -1,17 +1,50 @@
 package CustomString;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 public class ArrayRope implements CharSequence {
     private static final int INITIAL_CAPACITY = 16;
     private static final int BINARYSEARCH_THRESHOLD = 128;
     private static final int GROWTH_THRESHOLD = 1024;
+    private static final int DEFAULT_COALESCE_THRESHOLD = 0;
+    private static final int CHUNK_CAPACITY = 1024;
+    private static final int DEFAULT_MAPPED_PIECE_SIZE = 1 << 20;
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+    private static final int WRITE_BUFFER_NUM = 4;
+
+    private static final byte CODER_UNKNOWN = -1;
+    private static final byte CODER_LATIN1 = 0;
+    private static final byte CODER_UTF16 = 1;
 
     private static class ArrayRopePiece implements CharSequence {
         int start;
         int end;
         final CharSequence content;
+//        whether every char of this piece fits in Latin-1, found lazily on the first materialization
+        byte coder = CODER_UNKNOWN;
+        int hash;
+        boolean hashComputed;
         ArrayRopePiece(int start, int end, CharSequence content) {
             this.start = start;
             this.end = end;
@@ -19,8 +52,17 @@ public class ArrayRope implements CharSequence {
                 this.start += ((ArrayRopePiece) content).start;
                 this.end += ((ArrayRopePiece) content).start;
                 this.content = ((ArrayRopePiece) content).content;
+                if (((ArrayRopePiece) content).coder == CODER_LATIN1) {
+                    this.coder = CODER_LATIN1;
+                }
             } else {
                 this.content = content;
+                if (content instanceof MappedLatin1Sequence) {
+                    this.coder = CODER_LATIN1;
+                } else if (content instanceof CompactChunk chunk && chunk.isLatin1(start, end)) {
+//                    the chunk knows its coder from the append, no scan is needed later
+                    this.coder = CODER_LATIN1;
+                }
             }
         }
         ArrayRopePiece(CharSequence content) {
@@ -44,7 +86,83 @@ public class ArrayRope implements CharSequence {
 
         @Override
         public ArrayRopePiece subSequence(int start, int end) {
-            return new ArrayRopePiece(this.start + start, this.start + end, content);
+            ArrayRopePiece piece = new ArrayRopePiece(this.start + start, this.start + end, content);
+//            a slice of a Latin-1 piece is Latin-1 as well
+            if (coder == CODER_LATIN1) {
+                piece.coder = CODER_LATIN1;
+            }
+            return piece;
+        }
+
+        void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+            int from = start + srcBegin;
+            int to = start + srcEnd;
+            if (content instanceof String str) {
+                str.getChars(from, to, dst, dstBegin);
+            } else if (content instanceof StringBuilder sb) {
+                sb.getChars(from, to, dst, dstBegin);
+            } else if (content instanceof StringBuffer sb) {
+                sb.getChars(from, to, dst, dstBegin);
+            } else if (content instanceof ArrayRope rope) {
+                rope.getChars(from, to, dst, dstBegin);
+            } else if (content instanceof MappedLatin1Sequence mapped) {
+                mapped.getChars(from, to, dst, dstBegin);
+            } else if (content instanceof CompactChunk chunk) {
+                chunk.getChars(from, to, dst, dstBegin);
+            } else {
+                for (int i = from; i < to; i++) {
+                    dst[dstBegin++] = content.charAt(i);
+                }
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        void getLatin1Bytes(int srcBegin, int srcEnd, byte[] dst, int dstBegin) {
+            int from = start + srcBegin;
+            int to = start + srcEnd;
+            if (content instanceof String str) {
+//                String.getBytes(int, int, byte[], int) is a plain array copy for Latin-1 strings
+                str.getBytes(from, to, dst, dstBegin);
+            } else if (content instanceof MappedLatin1Sequence mapped) {
+                mapped.getBytes(from, to, dst, dstBegin);
+            } else if (content instanceof CompactChunk chunk) {
+                chunk.getBytes(from, to, dst, dstBegin);
+            } else {
+                for (int i = from; i < to; i++) {
+                    dst[dstBegin++] = (byte) content.charAt(i);
+                }
+            }
+        }
+
+        int contentHash() {
+            if (!hashComputed) {
+                if (content instanceof String str && start == 0 && end == str.length()) {
+                    hash = str.hashCode();
+                } else {
+                    int h = 0;
+                    for (int i = start; i < end; i++) {
+                        h = 31 * h + content.charAt(i);
+                    }
+                    hash = h;
+                }
+                hashComputed = true;
+            }
+            return hash;
+        }
+
+        void updateCoder(char[] copied, int from) {
+            for (int i = from; i < from + length(); i++) {
+                if (copied[i] > 0xFF) {
+                    coder = CODER_UTF16;
+                    return;
+                }
+            }
+            coder = CODER_LATIN1;
+        }
+
+        @Override
+        public String toString() {
+            return content.subSequence(start, end).toString();
         }
     }
 
@@ -53,6 +171,18 @@ public class ArrayRope implements CharSequence {
     private int piecesLength;
     private int[] indices;
 //    private final ArrayList<Integer> indices;
+//    piece touched by the last charAt(), lets sequential access skip searchPieceIndex
+    private int lastPieceIndex;
+//    appended sequences up to this length are copied into a shared chunk instead of getting their own piece, off unless set
+    private int coalesceThreshold = DEFAULT_COALESCE_THRESHOLD;
+//    append-only buffer owned by this rope, earlier pieces keep referring to the ranges they were given
+    private CompactChunk chunk;
+//    slice retention policy of subSequence(), see setSliceRetentionPolicy
+    private int sliceCopyThreshold = 0;
+    private double sliceCopyRatio = 0;
+//    String-compatible hash, kept up to date by append() once it has been computed
+    private int hash;
+    private boolean hashValid;
     @Override
     public int length() {
         if (piecesLength == 0) {return 0;}
@@ -79,10 +209,43 @@ public class ArrayRope implements CharSequence {
         return searchPieceIndex(0, charIndex);
     }
 
+    private boolean pieceContains(int pieceIndex, int charIndex) {
+        return pieceIndex < piecesLength
+                && indices[pieceIndex] <= charIndex
+                && charIndex < indices[pieceIndex] + pieces[pieceIndex].length();
+    }
+
+    private int locatePiece(int charIndex) {
+//        try the cached piece and its successor before falling back to a search
+        int piece_index = lastPieceIndex;
+        if (pieceContains(piece_index, charIndex)) {
+            return piece_index;
+        }
+        if (pieceContains(piece_index + 1, charIndex)) {
+            lastPieceIndex = piece_index + 1;
+            return piece_index + 1;
+        }
+        piece_index = findPiece(charIndex);
+        lastPieceIndex = piece_index;
+        return piece_index;
+    }
+
+    private int findPiece(int charIndex) {
+        if (charIndex < 0 || charIndex >= length()) {
+            throw new StringIndexOutOfBoundsException("index " + charIndex + ", length " + length());
+        }
+        int piece_index = searchPieceIndex(charIndex);
+//        step over pieces ending exactly at charIndex (including empty ones)
+        while (charIndex >= indices[piece_index] + pieces[piece_index].length()) {
+            piece_index++;
+        }
+        return piece_index;
+    }
+
     @Override
     public char charAt(int index) {
-        int piece_index = searchPieceIndex(index);
-        return pieces[piece_index].charAt(index - indices[piecesLength]);
+        int piece_index = locatePiece(index);
+        return pieces[piece_index].charAt(index - indices[piece_index]);
     }
 
     @Override
@@ -99,19 +262,68 @@ public class ArrayRope implements CharSequence {
         int char_index_in_start_piece = start - indices[start_piece_index];
         int char_index_in_end_piece = end - indices[end_piece_index];
         if (start_piece_index == end_piece_index) {
-            return this.pieces[start_piece_index].subSequence(char_index_in_start_piece, char_index_in_end_piece);
+            return retainSlice(this.pieces[start_piece_index].subSequence(char_index_in_start_piece, char_index_in_end_piece));
         }
 //        Assemble new pieces collection
         ArrayRopePiece[] subPieces = new ArrayRopePiece[end_piece_index - start_piece_index + 1];
         ArrayRopePiece first = this.pieces[start_piece_index];
-        subPieces[0] = first.subSequence(char_index_in_start_piece, first.length());
+        subPieces[0] = retainSlice(first.subSequence(char_index_in_start_piece, first.length()));
         for (int i = 1; i < end_piece_index - start_piece_index; i++) {
-            subPieces[i] = pieces[start_piece_index + i];
+            subPieces[i] = retainSlice(pieces[start_piece_index + i]);
         }
         ArrayRopePiece last = this.pieces[end_piece_index];
-        subPieces[subPieces.length - 1] = last.subSequence(0, char_index_in_end_piece);
+        subPieces[subPieces.length - 1] = retainSlice(last.subSequence(0, char_index_in_end_piece));
         ArrayRope newRope = new ArrayRope(subPieces);
-        return new ArrayRope(subPieces);
+        newRope.coalesceThreshold = coalesceThreshold;
+        newRope.sliceCopyThreshold = sliceCopyThreshold;
+        newRope.sliceCopyRatio = sliceCopyRatio;
+        return newRope;
+    }
+
+    /**
+     * Sets when subSequence() copies a slice instead of sharing its backing content:
+     * slices shorter than {@code copyThreshold} chars, or covering less than {@code copyRatio}
+     * of their content, are copied so they don't keep the whole content alive. Both 0 always share.
+     */
+    public ArrayRope setSliceRetentionPolicy(int copyThreshold, double copyRatio) {
+        if (copyThreshold < 0 || copyRatio < 0 || copyRatio > 1) {
+            throw new IllegalArgumentException("copy threshold must be non-negative and copy ratio within [0, 1]");
+        }
+        this.sliceCopyThreshold = copyThreshold;
+        this.sliceCopyRatio = copyRatio;
+        return this;
+    }
+
+    private ArrayRopePiece retainSlice(ArrayRopePiece piece) {
+        int content_length = piece.content.length();
+        int slice_length = piece.length();
+        if (slice_length == content_length) {
+            return piece;
+        }
+        if (slice_length < sliceCopyThreshold || slice_length < sliceCopyRatio * content_length) {
+            ArrayRopePiece copy = new ArrayRopePiece(piece.toString());
+            if (piece.coder == CODER_LATIN1) {
+                copy.coder = CODER_LATIN1;
+            }
+            return copy;
+        }
+        return piece;
+    }
+
+    /**
+     * Number of chars held by the distinct contents this rope refers to, compare with {@link #length()}
+     * to see how much memory slices keep alive beyond the chars they expose.
+     */
+    public long retainedChars() {
+        IdentityHashMap<CharSequence, Boolean> seen = new IdentityHashMap<>();
+        long retained = 0;
+        for (int i = 0; i < piecesLength; i++) {
+            CharSequence content = pieces[i].content;
+            if (seen.put(content, Boolean.TRUE) == null) {
+                retained += content.length();
+            }
+        }
+        return retained;
     }
 
     public ArrayRope() {
@@ -165,6 +377,37 @@ public class ArrayRope implements CharSequence {
         piecesLength = current_piece_index;
     }
 
+    /**
+     * Builds a rope over {@code length} bytes of a file starting at {@code position}, decoded as Latin-1.
+     * The region is memory-mapped and split into pieces of {@code pieceSize} chars, nothing is copied into the heap.
+     * A rope is indexed by int, so a single rope covers at most {@code Integer.MAX_VALUE} bytes of the file.
+     */
+    public static ArrayRope mapFile(Path path, long position, int length, int pieceSize) throws IOException {
+        if (pieceSize <= 0) {
+            throw new IllegalArgumentException("piece size must be positive");
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        ArrayRope rope = new ArrayRope();
+        for (int offset = 0; offset < length; offset += pieceSize) {
+            rope.appendPieces(new MappedLatin1Sequence(buffer, offset, Math.min(pieceSize, length - offset)));
+        }
+        return rope;
+    }
+
+    public static ArrayRope mapFile(Path path) throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("file too large for a single rope: " + size + " bytes, map it in windows");
+        }
+        return mapFile(path, 0, (int) size, DEFAULT_MAPPED_PIECE_SIZE);
+    }
+
     private void expand(int increased) {
 //        compute after expand size
         int target_size = piecesLength + increased;
@@ -181,10 +424,46 @@ public class ArrayRope implements CharSequence {
         this.indices = new_indices;
     }
 
-    public ArrayRope append(CharSequence cs) {
-        if (cs.isEmpty()) {
-            return this;
+    public ArrayRope setCoalesceThreshold(int coalesceThreshold) {
+        if (coalesceThreshold < 0 || coalesceThreshold > CHUNK_CAPACITY) {
+            throw new IllegalArgumentException("coalesce threshold must be within [0, " + CHUNK_CAPACITY + "]");
+        }
+        this.coalesceThreshold = coalesceThreshold;
+        return this;
+    }
+
+    public int getCoalesceThreshold() {
+        return coalesceThreshold;
+    }
+
+    private static void appendContent(CompactChunk chunk, CharSequence cs) {
+        if (cs instanceof ArrayRopePiece piece) {
+            chunk.append(piece.content, piece.start, piece.end);
+        } else if (cs instanceof ArrayRope rope) {
+            for (int i = 0; i < rope.piecesLength; i++) {
+                appendContent(chunk, rope.pieces[i]);
+            }
+        } else {
+            chunk.append(cs);
         }
+    }
+
+    private void appendToChunk(CharSequence cs) {
+        if (chunk == null || chunk.length() + cs.length() > CHUNK_CAPACITY) {
+            chunk = new CompactChunk(INITIAL_CAPACITY);
+        }
+        int chunk_start = chunk.length();
+        appendContent(chunk, cs);
+        ArrayRopePiece last = piecesLength > 0 ? pieces[piecesLength - 1] : null;
+        if (last != null && last.content == chunk && last.end == chunk_start) {
+//            widen the tail piece over the chunk, it may be shared so replace it instead of mutating
+            pieces[piecesLength - 1] = new ArrayRopePiece(last.start, chunk.length(), chunk);
+        } else {
+            appendPieces(new ArrayRopePiece(chunk_start, chunk.length(), chunk));
+        }
+    }
+
+    private void appendPieces(CharSequence cs) {
         if (cs instanceof ArrayRope appended) {
             if (piecesLength + appended.piecesLength > pieces.length) {
                 expand(appended.piecesLength);
@@ -204,6 +483,20 @@ public class ArrayRope implements CharSequence {
             indices[piecesLength] = length();
             piecesLength += 1;
         }
+    }
+
+    public ArrayRope append(CharSequence cs) {
+        if (cs.isEmpty()) {
+            return this;
+        }
+        if (hashValid) {
+            hash = combineHash(hash, cs);
+        }
+        if (cs.length() <= coalesceThreshold) {
+            appendToChunk(cs);
+        } else {
+            appendPieces(cs);
+        }
         return this;
     }
 
@@ -219,33 +512,701 @@ public class ArrayRope implements CharSequence {
         int[] new_indices = new int[new_pieces_length];
         System.arraycopy(indices, 0, new_indices, 0, piecesLength);
         ArrayRope new_rope = new ArrayRope(new_pieces, new_indices, piecesLength);
-        new_rope.append(cs);
+        new_rope.coalesceThreshold = coalesceThreshold;
+//        the chunk belongs to this rope, so concat keeps the appended sequence as its own piece
+        if (!cs.isEmpty()) {
+            new_rope.appendPieces(cs);
+        }
+        if (hashValid) {
+            new_rope.hash = combineHash(hash, cs);
+            new_rope.hashValid = true;
+        }
         return new_rope;
     }
 
+    private static int pow31(int exponent) {
+        int result = 1;
+        int base = 31;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    private static int contentHash(CharSequence cs) {
+        if (cs instanceof String || cs instanceof ArrayRope) {
+            return cs.hashCode();
+        }
+        if (cs instanceof ArrayRopePiece piece) {
+            return piece.contentHash();
+        }
+        int h = 0;
+        for (int i = 0; i < cs.length(); i++) {
+            h = 31 * h + cs.charAt(i);
+        }
+        return h;
+    }
+
+//    hash(a + b) == hash(a) * 31^|b| + hash(b)
+    private static int combineHash(int hash, CharSequence appended) {
+        return hash * pow31(appended.length()) + contentHash(appended);
+    }
+
+    /**
+     * Same value as {@code toString().hashCode()}, combined from cached per-piece hashes.
+     */
+    @Override
+    public int hashCode() {
+        if (!hashValid) {
+            int h = 0;
+            for (int i = 0; i < piecesLength; i++) {
+                ArrayRopePiece piece = pieces[i];
+                h = h * pow31(piece.length()) + piece.contentHash();
+            }
+            hash = h;
+            hashValid = true;
+        }
+        return hash;
+    }
+
+    private static boolean regionEquals(CharSequence a, int aStart, CharSequence b, int bStart, int length) {
+        if (a instanceof String str_a && b instanceof String str_b) {
+            return str_a.regionMatches(aStart, str_b, bStart, length);
+        }
+        for (int i = 0; i < length; i++) {
+            if (a.charAt(aStart + i) != b.charAt(bStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean piecesEqual(ArrayRope other) {
+        int piece_index = 0;
+        int other_piece_index = 0;
+        int offset = 0;
+        int other_offset = 0;
+        int remaining = length();
+        while (remaining > 0) {
+            ArrayRopePiece piece = pieces[piece_index];
+            ArrayRopePiece other_piece = other.pieces[other_piece_index];
+            int run = Math.min(piece.length() - offset, other_piece.length() - other_offset);
+//            runs over the same backing range are equal without looking at them
+            boolean shared = piece.content == other_piece.content && piece.start + offset == other_piece.start + other_offset;
+            if (run > 0 && !shared
+                    && !regionEquals(piece.content, piece.start + offset, other_piece.content, other_piece.start + other_offset, run)) {
+                return false;
+            }
+            offset += run;
+            other_offset += run;
+            remaining -= run;
+            if (offset == piece.length()) {
+                piece_index++;
+                offset = 0;
+            }
+            if (other_offset == other_piece.length()) {
+                other_piece_index++;
+                other_offset = 0;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ArrayRope rope) || length() != rope.length()) {
+            return false;
+        }
+        if (hashValid && rope.hashValid && hash != rope.hash) {
+            return false;
+        }
+        return piecesEqual(rope);
+    }
+
+    /**
+     * Compares the chars of this rope with any {@code CharSequence}, like {@link String#contentEquals}.
+     */
+    public boolean contentEquals(CharSequence cs) {
+        if (cs instanceof ArrayRope rope) {
+            return equals(rope);
+        }
+        if (length() != cs.length()) {
+            return false;
+        }
+        for (int i = 0; i < piecesLength; i++) {
+            ArrayRopePiece piece = pieces[i];
+            if (!regionEquals(piece.content, piece.start, cs, indices[i], piece.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies chars {@code [srcBegin, srcEnd)} of this rope into {@code dst}, one bulk copy per piece.
+     */
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length()) {
+            throw new StringIndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length());
+        }
+        if (srcBegin == srcEnd) {
+            return;
+        }
+        int piece_index = locatePiece(srcBegin);
+        int pos = srcBegin;
+        while (pos < srcEnd) {
+            ArrayRopePiece piece = pieces[piece_index];
+            int piece_begin = pos - indices[piece_index];
+            int piece_end = Math.min(piece.length(), srcEnd - indices[piece_index]);
+            piece.getChars(piece_begin, piece_end, dst, dstBegin);
+            dstBegin += piece_end - piece_begin;
+            pos += piece_end - piece_begin;
+            piece_index++;
+        }
+    }
+
     @Override
     public String toString() {
-        char[] charBuffer = new char[this.length()];
-        int pos = 0;
+        int length = this.length();
+        boolean all_latin1 = true;
+        for (int i = 0; i < piecesLength && all_latin1; i++) {
+            all_latin1 = pieces[i].coder == CODER_LATIN1;
+        }
+        if (all_latin1) {
+//            every piece is known to be Latin-1, build the compact String without a UTF-16 buffer
+            byte[] byteBuffer = new byte[length];
+            for (int i = 0; i < piecesLength; i++) {
+                pieces[i].getLatin1Bytes(0, pieces[i].length(), byteBuffer, indices[i]);
+            }
+            return new String(byteBuffer, StandardCharsets.ISO_8859_1);
+        }
+        char[] charBuffer = new char[length];
         for (int i = 0; i < piecesLength; i++) {
             ArrayRopePiece piece = pieces[i];
-            for (int j = 0; j < piece.length(); j++) {
-                charBuffer[pos + j] = piece.content.charAt(j + piece.start);
+            piece.getChars(0, piece.length(), charBuffer, indices[i]);
+            if (piece.coder == CODER_UNKNOWN) {
+                piece.updateCoder(charBuffer, indices[i]);
             }
-            pos += piece.length();
         }
         return new String(charBuffer);
     }
 
+    /**
+     * Appends the rope piece by piece, without flattening it first.
+     */
+    public void writeTo(Appendable out) throws IOException {
+        for (int i = 0; i < piecesLength; i++) {
+            out.append(pieces[i].content, pieces[i].start, pieces[i].end);
+        }
+    }
+
+    /**
+     * Writes the rope piece by piece. String pieces are handed to the writer as they are,
+     * other pieces are copied through one small reusable buffer, because Writer.append(CharSequence, int, int)
+     * would turn every piece into a String.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        char[] buffer = null;
+        for (int i = 0; i < piecesLength; i++) {
+            ArrayRopePiece piece = pieces[i];
+            if (piece.content instanceof String str) {
+                writer.write(str, piece.start, piece.length());
+                continue;
+            }
+            if (buffer == null) {
+                buffer = new char[WRITE_BUFFER_SIZE];
+            }
+            for (int from = 0; from < piece.length(); from += buffer.length) {
+                int to = Math.min(from + buffer.length, piece.length());
+                piece.getChars(from, to, buffer, 0);
+                writer.write(buffer, 0, to - from);
+            }
+        }
+    }
+
+    /**
+     * Encodes the rope into a few small reusable buffers and writes them to {@code channel},
+     * with one gathering write per round when the channel supports it. Returns the number of bytes written.
+     * Pieces known to be Latin-1 are copied as bytes without an encoder when {@code charset} is ISO-8859-1.
+     * Unmappable chars are replaced like {@code String.getBytes(charset)} does.
+     */
+    public long writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[WRITE_BUFFER_NUM];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        }
+        ChannelWriter out = new ChannelWriter(channel, buffers, charset);
+        boolean latin1_charset = charset.equals(StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < piecesLength; i++) {
+            ArrayRopePiece piece = pieces[i];
+            if (latin1_charset && piece.coder == CODER_LATIN1 && out.encodePending()) {
+                out.putLatin1(piece);
+            } else {
+                out.putChars(piece);
+            }
+        }
+        return out.finish();
+    }
+
+    private static class ChannelWriter {
+        final WritableByteChannel channel;
+        final ByteBuffer[] buffers;
+        final CharsetEncoder encoder;
+        final CharBuffer chars = CharBuffer.allocate(WRITE_BUFFER_SIZE);
+        int current;
+        long written;
+
+        ChannelWriter(WritableByteChannel channel, ByteBuffer[] buffers, Charset charset) {
+            this.channel = channel;
+            this.buffers = buffers;
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void nextBuffer() throws IOException {
+            if (++current == buffers.length) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            int used = Math.min(current + 1, buffers.length);
+            for (int i = 0; i < used; i++) {
+                buffers[i].flip();
+            }
+            for (int i = 0; i < used; i++) {
+                while (buffers[i].hasRemaining()) {
+                    if (channel instanceof GatheringByteChannel gathering) {
+                        written += gathering.write(buffers, i, used - i);
+                    } else {
+                        written += channel.write(buffers[i]);
+                    }
+                }
+                buffers[i].clear();
+            }
+            current = 0;
+        }
+
+        void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (encoder.encode(chars, buffers[current], endOfInput).isOverflow()) {
+                nextBuffer();
+            }
+//            a high surrogate at the end of the buffer waits for the rest of its pair
+            chars.compact();
+        }
+
+        /**
+         * Encodes the chars waiting in the char buffer, returns whether none is left over.
+         */
+        boolean encodePending() throws IOException {
+            if (chars.position() > 0) {
+                encode(false);
+            }
+            return chars.position() == 0;
+        }
+
+        void putLatin1(ArrayRopePiece piece) throws IOException {
+            int from = 0;
+            while (from < piece.length()) {
+                ByteBuffer buffer = buffers[current];
+                if (!buffer.hasRemaining()) {
+                    nextBuffer();
+                    continue;
+                }
+                int to = Math.min(from + buffer.remaining(), piece.length());
+                piece.getLatin1Bytes(from, to, buffer.array(), buffer.arrayOffset() + buffer.position());
+                buffer.position(buffer.position() + to - from);
+                from = to;
+            }
+        }
+
+        void putChars(ArrayRopePiece piece) throws IOException {
+            int from = 0;
+            while (from < piece.length()) {
+                int to = Math.min(from + chars.remaining(), piece.length());
+                piece.getChars(from, to, chars.array(), chars.arrayOffset() + chars.position());
+                chars.position(chars.position() + to - from);
+                from = to;
+                encode(false);
+            }
+        }
+
+        long finish() throws IOException {
+            encode(true);
+            while (encoder.flush(buffers[current]).isOverflow()) {
+                nextBuffer();
+            }
+            flush();
+            return written;
+        }
+    }
+
+    private static int indexOfInContent(CharSequence content, String pattern, int from, int to) {
+        int pattern_length = pattern.length();
+        if (to - from < pattern_length) {
+            return -1;
+        }
+        int found;
+        if (content instanceof String str) {
+            return str.indexOf(pattern, from, to);
+        } else if (content instanceof StringBuilder sb) {
+            found = sb.indexOf(pattern, from);
+        } else if (content instanceof StringBuffer sb) {
+            found = sb.indexOf(pattern, from);
+        } else if (content instanceof ArrayRope rope) {
+            found = rope.indexOf(pattern, from);
+        } else {
+            found = -1;
+            for (int i = from; i <= to - pattern_length && found < 0; i++) {
+                if (matchesAt(content, i, pattern)) {
+                    found = i;
+                }
+            }
+        }
+        return found >= 0 && found + pattern_length <= to ? found : -1;
+    }
+
+    private static int lastIndexOfInContent(CharSequence content, String pattern, int from, int to) {
+        int last_start = to - pattern.length();
+        if (last_start < from) {
+            return -1;
+        }
+        int found;
+        if (content instanceof String str) {
+            found = str.lastIndexOf(pattern, last_start);
+        } else if (content instanceof StringBuilder sb) {
+            found = sb.lastIndexOf(pattern, last_start);
+        } else if (content instanceof StringBuffer sb) {
+            found = sb.lastIndexOf(pattern, last_start);
+        } else if (content instanceof ArrayRope rope) {
+            found = rope.lastIndexOf(pattern, last_start);
+        } else {
+            found = -1;
+            for (int i = last_start; i >= from && found < 0; i--) {
+                if (matchesAt(content, i, pattern)) {
+                    found = i;
+                }
+            }
+        }
+        return found >= from ? found : -1;
+    }
+
+    private static boolean matchesAt(CharSequence content, int offset, String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (content.charAt(offset + i) != pattern.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the chars around the end of piece {@code pieceIndex} that a match starting in the piece
+     * and ending in a later one could cover, and returns the rope offset of the copy.
+     */
+    private int stitchBoundary(int pieceIndex, int patternLength, char[] window) {
+        int piece_end = indices[pieceIndex] + pieces[pieceIndex].length();
+        int window_start = Math.max(indices[pieceIndex], piece_end - patternLength + 1);
+        int window_end = Math.min(length(), piece_end + patternLength - 1);
+        getChars(window_start, window_end, window, 0);
+        return window_start;
+    }
+
+    private static boolean matchesAt(char[] window, int offset, String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (window[offset + i] != pattern.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset of the first occurrence of {@code pattern} at or after {@code fromIndex}, or -1.
+     * Each piece is searched in its backing content, only the chars around piece boundaries are copied.
+     */
+    public int indexOf(CharSequence pattern, int fromIndex) {
+        String target = pattern.toString();
+        int pattern_length = target.length();
+        int length = length();
+        fromIndex = Math.max(fromIndex, 0);
+        if (pattern_length == 0) {
+            return Math.min(fromIndex, length);
+        }
+        if (fromIndex > length - pattern_length) {
+            return -1;
+        }
+        char[] window = new char[2 * pattern_length - 2];
+        for (int i = locatePiece(fromIndex); i < piecesLength; i++) {
+            ArrayRopePiece piece = pieces[i];
+            int piece_start = indices[i];
+            int piece_end = piece_start + piece.length();
+//            matches inside the piece
+            int local_from = piece.start + Math.max(fromIndex - piece_start, 0);
+            int found = indexOfInContent(piece.content, target, local_from, piece.end);
+            if (found >= 0) {
+                return piece_start + found - piece.start;
+            }
+//            matches that start in this piece and end in a later one
+            if (pattern_length > 1 && piece_end < length && piece.length() > 0) {
+                int window_start = stitchBoundary(i, pattern_length, window);
+                int window_length = Math.min(length, piece_end + pattern_length - 1) - window_start;
+                for (int j = Math.max(fromIndex - window_start, 0); j < piece_end - window_start; j++) {
+                    if (j + pattern_length <= window_length && matchesAt(window, j, target)) {
+                        return window_start + j;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(CharSequence pattern) {
+        return indexOf(pattern, 0);
+    }
+
+    /**
+     * Returns the offset of the last occurrence of {@code pattern} starting at or before {@code fromIndex}, or -1.
+     */
+    public int lastIndexOf(CharSequence pattern, int fromIndex) {
+        String target = pattern.toString();
+        int pattern_length = target.length();
+        int length = length();
+        fromIndex = Math.min(fromIndex, length - pattern_length);
+        if (fromIndex < 0) {
+            return -1;
+        }
+        if (pattern_length == 0) {
+            return fromIndex;
+        }
+        char[] window = new char[2 * pattern_length - 2];
+        for (int i = locatePiece(fromIndex); i >= 0; i--) {
+            ArrayRopePiece piece = pieces[i];
+            int piece_start = indices[i];
+            int piece_end = piece_start + piece.length();
+//            matches that start in this piece and end in a later one come after the ones inside it
+            if (pattern_length > 1 && piece_end < length && piece.length() > 0) {
+                int window_start = stitchBoundary(i, pattern_length, window);
+                int window_length = Math.min(length, piece_end + pattern_length - 1) - window_start;
+                for (int j = Math.min(fromIndex, piece_end - 1) - window_start; j >= 0; j--) {
+                    if (j + pattern_length <= window_length && matchesAt(window, j, target)) {
+                        return window_start + j;
+                    }
+                }
+            }
+            int local_to = piece.start + Math.min(fromIndex + pattern_length - piece_start, piece.length());
+            int found = lastIndexOfInContent(piece.content, target, piece.start, local_to);
+            if (found >= 0) {
+                return piece_start + found - piece.start;
+            }
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(CharSequence pattern) {
+        return lastIndexOf(pattern, length());
+    }
+
+    /**
+     * Iterates over the offsets of every occurrence of {@code pattern}, overlapping ones included.
+     */
+    public PrimitiveIterator.OfInt findAll(CharSequence pattern) {
+        String target = pattern.toString();
+        return new PrimitiveIterator.OfInt() {
+            private int next = indexOf(target, 0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int found = next;
+                next = found + 1 <= length() ? indexOf(target, found + 1) : -1;
+                return found;
+            }
+        };
+    }
+
+    /**
+     * Forward iterator over the chars of a rope that walks the piece array directly,
+     * so a full scan costs O(n) instead of one piece search per char.
+     * The cursor is invalidated by any later append to the rope.
+     */
+    public class Cursor implements PrimitiveIterator.OfInt {
+        private int pieceIndex;
+        private int charIndex;
+        private int position;
+        private final int end;
+
+        private Cursor(int from, int to) {
+            this.end = to;
+            this.position = from;
+            if (from < to) {
+                this.pieceIndex = locatePiece(from);
+                this.charIndex = pieces[pieceIndex].start + from - indices[pieceIndex];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        public char nextChar() {
+            if (position >= end) {
+                throw new NoSuchElementException();
+            }
+            ArrayRopePiece piece = pieces[pieceIndex];
+            while (charIndex >= piece.end) {
+                piece = pieces[++pieceIndex];
+                charIndex = piece.start;
+            }
+            position++;
+            return piece.content.charAt(charIndex++);
+        }
+
+        @Override
+        public int nextInt() {
+            return nextChar();
+        }
+
+        public int position() {
+            return position;
+        }
+    }
+
+    /**
+     * Read-only view for consumers with local access patterns such as {@link java.util.regex.Matcher}.
+     * The view remembers the piece it touched last and first tries its neighbours, so forward scans and
+     * short backtracks resolve without a piece search. Each view keeps its own cache, use one per thread.
+     */
+    public class RegexView implements CharSequence {
+        private static final int NEIGHBOUR_STEPS = 4;
+        private final int length = ArrayRope.this.length();
+        private int pieceIndex = -1;
+        private int pieceStart = 0;
+        private int pieceEnd = 0;
+        private int contentOffset;
+        private CharSequence content;
+
+        private RegexView() {
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < pieceStart || index >= pieceEnd) {
+                moveTo(index);
+            }
+            return content.charAt(index + contentOffset);
+        }
+
+        private void moveTo(int index) {
+            int piece_index = pieceIndex;
+            if (piece_index >= 0 && index >= pieceEnd) {
+                for (int step = 0; step < NEIGHBOUR_STEPS && piece_index < piecesLength - 1 && !pieceContains(piece_index, index); step++) {
+                    piece_index++;
+                }
+            } else if (piece_index >= 0 && index >= 0) {
+                for (int step = 0; step < NEIGHBOUR_STEPS && piece_index > 0 && !pieceContains(piece_index, index); step++) {
+                    piece_index--;
+                }
+            }
+            if (piece_index < 0 || !pieceContains(piece_index, index)) {
+                piece_index = findPiece(index);
+            }
+            ArrayRopePiece piece = pieces[piece_index];
+            pieceIndex = piece_index;
+            pieceStart = indices[piece_index];
+            pieceEnd = pieceStart + piece.length();
+            contentOffset = piece.start - pieceStart;
+            content = piece.content;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            CharSequence sub = ArrayRope.this.subSequence(start, end);
+            return sub instanceof ArrayRope rope ? rope.regexView() : sub;
+        }
+
+        @Override
+        public String toString() {
+            return ArrayRope.this.toString();
+        }
+    }
+
+    public RegexView regexView() {
+        return new RegexView();
+    }
+
+    public Cursor cursor() {
+        return new Cursor(0, length());
+    }
+
+    public Cursor cursor(int from) {
+        if (from < 0 || from > length()) {
+            throw new StringIndexOutOfBoundsException("index " + from + ", length " + length());
+        }
+        return new Cursor(from, length());
+    }
+
     @Override
     public IntStream chars() {
-//        TODO: Add state to avoid search cost in charAt()
-        return CharSequence.super.chars();
+        int length = length();
+        return StreamSupport.intStream(
+                () -> Spliterators.spliterator(cursor(), length, Spliterator.ORDERED),
+                Spliterator.SUBSIZED | Spliterator.SIZED | Spliterator.ORDERED,
+                false);
     }
 
     @Override
     public IntStream codePoints() {
-        return CharSequence.super.codePoints();
+        return StreamSupport.intStream(
+                () -> Spliterators.spliteratorUnknownSize(new PrimitiveIterator.OfInt() {
+                    private final Cursor cursor = cursor();
+                    private char pending;
+                    private boolean hasPending = false;
+
+                    @Override
+                    public boolean hasNext() {
+                        return hasPending || cursor.hasNext();
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        char high = hasPending ? pending : cursor.nextChar();
+                        hasPending = false;
+                        if (Character.isHighSurrogate(high) && cursor.hasNext()) {
+                            char low = cursor.nextChar();
+                            if (Character.isLowSurrogate(low)) {
+                                return Character.toCodePoint(high, low);
+                            }
+                            pending = low;
+                            hasPending = true;
+                        }
+                        return high;
+                    }
+                }, Spliterator.ORDERED),
+                Spliterator.ORDERED,
+                false);
     }
 
 }
\ No newline at end of file
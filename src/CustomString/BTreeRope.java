@@ -0,0 +1,364 @@
+package CustomString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutable rope whose pieces sit in the leaves of a B+-tree.
+ * Inner nodes keep the char length of every child, so locating an offset, appending,
+ * prepending and inserting in the middle all cost O(log n) in the number of pieces.
+ * Leaves are linked left to right for sequential scans.
+ */
+public class BTreeRope implements CharSequence {
+    private static final int MAX_PIECES = 64;
+    private static final int MAX_CHILDREN = 64;
+
+    private static final class Piece {
+        final int start;
+        final int end;
+        final CharSequence content;
+        Piece(int start, int end, CharSequence content) {
+            this.start = start;
+            this.end = end;
+            this.content = content;
+        }
+
+        int length() {
+            return end - start;
+        }
+    }
+
+    private static abstract class Node {
+        int length;
+        int size;
+    }
+
+    private static final class Leaf extends Node {
+//        two spare slots, inserting into the middle of a piece adds two pieces before the leaf splits
+        final Piece[] pieces = new Piece[MAX_PIECES + 2];
+        Leaf next;
+    }
+
+    private static final class Inner extends Node {
+        final Node[] children = new Node[MAX_CHILDREN + 1];
+        final int[] lengths = new int[MAX_CHILDREN + 1];
+    }
+
+    private Node root;
+    private Leaf first;
+    private int piecesLength;
+
+    public BTreeRope() {
+        Leaf leaf = new Leaf();
+        this.root = leaf;
+        this.first = leaf;
+        this.piecesLength = 0;
+    }
+
+    public BTreeRope(CharSequence... contents) {
+        List<Piece> pieces = new ArrayList<>(contents.length);
+        for (CharSequence content : contents) {
+            collectPieces(content, pieces);
+        }
+        bulkLoad(pieces);
+    }
+
+    private BTreeRope(List<Piece> pieces) {
+        bulkLoad(pieces);
+    }
+
+    private static void collectPieces(CharSequence cs, List<Piece> out) {
+        if (cs.isEmpty()) {
+            return;
+        }
+        if (cs instanceof BTreeRope rope) {
+            for (Leaf leaf = rope.first; leaf != null; leaf = leaf.next) {
+                for (int i = 0; i < leaf.size; i++) {
+                    out.add(leaf.pieces[i]);
+                }
+            }
+        } else {
+            out.add(new Piece(0, cs.length(), cs));
+        }
+    }
+
+    private void bulkLoad(List<Piece> pieces) {
+//        fill leaves left to right, then build each inner level over the previous one
+        List<Node> level = new ArrayList<>();
+        Leaf previous = null;
+        for (int i = 0; i < pieces.size(); i += MAX_PIECES) {
+            Leaf leaf = new Leaf();
+            for (int j = i; j < Math.min(i + MAX_PIECES, pieces.size()); j++) {
+                Piece piece = pieces.get(j);
+                leaf.pieces[leaf.size++] = piece;
+                leaf.length += piece.length();
+            }
+            if (previous == null) {
+                first = leaf;
+            } else {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level.add(leaf);
+        }
+        if (level.isEmpty()) {
+            Leaf leaf = new Leaf();
+            first = leaf;
+            level.add(leaf);
+        }
+        while (level.size() > 1) {
+            List<Node> parents = new ArrayList<>(level.size() / MAX_CHILDREN + 1);
+            for (int i = 0; i < level.size(); i += MAX_CHILDREN) {
+                Inner inner = new Inner();
+                for (int j = i; j < Math.min(i + MAX_CHILDREN, level.size()); j++) {
+                    Node child = level.get(j);
+                    inner.children[inner.size] = child;
+                    inner.lengths[inner.size++] = child.length;
+                    inner.length += child.length;
+                }
+                parents.add(inner);
+            }
+            level = parents;
+        }
+        root = level.get(0);
+        piecesLength = pieces.size();
+    }
+
+    @Override
+    public int length() {
+        return root.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.length == 0;
+    }
+
+    public int piecesLength() {
+        return piecesLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= root.length) {
+            throw new StringIndexOutOfBoundsException("index " + index + ", length " + root.length);
+        }
+        Node node = root;
+        while (node instanceof Inner inner) {
+            int child_index = 0;
+            while (index >= inner.lengths[child_index]) {
+                index -= inner.lengths[child_index++];
+            }
+            node = inner.children[child_index];
+        }
+        Leaf leaf = (Leaf) node;
+        int piece_index = 0;
+        while (index >= leaf.pieces[piece_index].length()) {
+            index -= leaf.pieces[piece_index++].length();
+        }
+        Piece piece = leaf.pieces[piece_index];
+        return piece.content.charAt(piece.start + index);
+    }
+
+    private Node insert(Node node, int offset, Piece piece) {
+        if (node instanceof Leaf leaf) {
+            return insertIntoLeaf(leaf, offset, piece);
+        }
+        Inner inner = (Inner) node;
+        int child_index = 0;
+//        an offset on a child boundary goes to the end of the left child
+        while (child_index < inner.size - 1 && offset > inner.lengths[child_index]) {
+            offset -= inner.lengths[child_index++];
+        }
+        Node child = inner.children[child_index];
+        Node split = insert(child, offset, piece);
+        inner.lengths[child_index] = child.length;
+        inner.length += piece.length();
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(inner.children, child_index + 1, inner.children, child_index + 2, inner.size - child_index - 1);
+        System.arraycopy(inner.lengths, child_index + 1, inner.lengths, child_index + 2, inner.size - child_index - 1);
+        inner.children[child_index + 1] = split;
+        inner.lengths[child_index + 1] = split.length;
+        inner.size++;
+        if (inner.size <= MAX_CHILDREN) {
+            return null;
+        }
+//        split the overflowing inner node in half
+        Inner right = new Inner();
+        int half = inner.size / 2;
+        right.size = inner.size - half;
+        System.arraycopy(inner.children, half, right.children, 0, right.size);
+        System.arraycopy(inner.lengths, half, right.lengths, 0, right.size);
+        for (int i = 0; i < right.size; i++) {
+            right.length += right.lengths[i];
+            inner.children[half + i] = null;
+        }
+        inner.size = half;
+        inner.length -= right.length;
+        return right;
+    }
+
+    private Node insertIntoLeaf(Leaf leaf, int offset, Piece piece) {
+        int piece_index = 0;
+        while (piece_index < leaf.size && offset >= leaf.pieces[piece_index].length()) {
+            offset -= leaf.pieces[piece_index++].length();
+        }
+        if (offset > 0) {
+//            the offset falls inside a piece, cut it in two around the new piece
+            Piece cut = leaf.pieces[piece_index];
+            System.arraycopy(leaf.pieces, piece_index + 1, leaf.pieces, piece_index + 3, leaf.size - piece_index - 1);
+            leaf.pieces[piece_index] = new Piece(cut.start, cut.start + offset, cut.content);
+            leaf.pieces[piece_index + 1] = piece;
+            leaf.pieces[piece_index + 2] = new Piece(cut.start + offset, cut.end, cut.content);
+            leaf.size += 2;
+            piecesLength += 2;
+        } else {
+            System.arraycopy(leaf.pieces, piece_index, leaf.pieces, piece_index + 1, leaf.size - piece_index);
+            leaf.pieces[piece_index] = piece;
+            leaf.size += 1;
+            piecesLength += 1;
+        }
+        leaf.length += piece.length();
+        if (leaf.size <= MAX_PIECES) {
+            return null;
+        }
+        Leaf right = new Leaf();
+        int half = leaf.size / 2;
+        right.size = leaf.size - half;
+        System.arraycopy(leaf.pieces, half, right.pieces, 0, right.size);
+        for (int i = 0; i < right.size; i++) {
+            right.length += right.pieces[i].length();
+            leaf.pieces[half + i] = null;
+        }
+        leaf.size = half;
+        leaf.length -= right.length;
+        right.next = leaf.next;
+        leaf.next = right;
+        return right;
+    }
+
+    private void insertPiece(int offset, Piece piece) {
+        Node split = insert(root, offset, piece);
+        if (split != null) {
+            Inner new_root = new Inner();
+            new_root.children[0] = root;
+            new_root.lengths[0] = root.length;
+            new_root.children[1] = split;
+            new_root.lengths[1] = split.length;
+            new_root.size = 2;
+            new_root.length = root.length + split.length;
+            root = new_root;
+        }
+    }
+
+    public BTreeRope insert(int offset, CharSequence cs) {
+        if (offset < 0 || offset > root.length) {
+            throw new StringIndexOutOfBoundsException("offset " + offset + ", length " + root.length);
+        }
+        List<Piece> pieces = new ArrayList<>();
+        collectPieces(cs, pieces);
+        for (Piece piece : pieces) {
+            insertPiece(offset, piece);
+            offset += piece.length();
+        }
+        return this;
+    }
+
+    public BTreeRope append(CharSequence cs) {
+        return insert(root.length, cs);
+    }
+
+    public BTreeRope prepend(CharSequence cs) {
+        return insert(0, cs);
+    }
+
+    @Override
+    public BTreeRope subSequence(int start, int end) {
+        if (start < 0 || start > end || end > root.length) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + root.length);
+        }
+        List<Piece> pieces = new ArrayList<>();
+        if (start == end) {
+            return new BTreeRope(pieces);
+        }
+//        descend to the leaf holding start, then walk the leaf chain until end
+        Node node = root;
+        int offset = start;
+        while (node instanceof Inner inner) {
+            int child_index = 0;
+            while (offset >= inner.lengths[child_index]) {
+                offset -= inner.lengths[child_index++];
+            }
+            node = inner.children[child_index];
+        }
+        int remaining = end - start;
+        for (Leaf leaf = (Leaf) node; remaining > 0; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size && remaining > 0; i++) {
+                Piece piece = leaf.pieces[i];
+                if (offset >= piece.length()) {
+                    offset -= piece.length();
+                    continue;
+                }
+                int piece_end = Math.min(piece.length(), offset + remaining);
+                if (offset == 0 && piece_end == piece.length()) {
+                    pieces.add(piece);
+                } else {
+                    pieces.add(new Piece(piece.start + offset, piece.start + piece_end, piece.content));
+                }
+                remaining -= piece_end - offset;
+                offset = 0;
+            }
+        }
+        return new BTreeRope(pieces);
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > root.length) {
+            throw new StringIndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + root.length);
+        }
+        if (srcBegin == srcEnd) {
+            return;
+        }
+//        descend to the leaf holding srcBegin, then copy along the leaf chain until srcEnd
+        Node node = root;
+        int offset = srcBegin;
+        while (node instanceof Inner inner) {
+            int child_index = 0;
+            while (offset >= inner.lengths[child_index]) {
+                offset -= inner.lengths[child_index++];
+            }
+            node = inner.children[child_index];
+        }
+        int remaining = srcEnd - srcBegin;
+        for (Leaf leaf = (Leaf) node; remaining > 0; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size && remaining > 0; i++) {
+                Piece piece = leaf.pieces[i];
+                if (offset >= piece.length()) {
+                    offset -= piece.length();
+                    continue;
+                }
+                int copy_begin = piece.start + offset;
+                int copy_end = piece.start + Math.min(piece.length(), offset + remaining);
+                if (piece.content instanceof String str) {
+                    str.getChars(copy_begin, copy_end, dst, dstBegin);
+                } else {
+                    for (int j = copy_begin; j < copy_end; j++) {
+                        dst[dstBegin + j - copy_begin] = piece.content.charAt(j);
+                    }
+                }
+                dstBegin += copy_end - copy_begin;
+                remaining -= copy_end - copy_begin;
+                offset = 0;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        char[] charBuffer = new char[root.length];
+        getChars(0, root.length, charBuffer, 0);
+        return new String(charBuffer);
+    }
+}
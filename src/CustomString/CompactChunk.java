@@ -0,0 +1,239 @@
+package CustomString;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only char buffer that stores one byte per char while every char fits in Latin-1
+ * and inflates to UTF-16 on the first char that does not, like the compact strings of the JDK.
+ * Chars already written never change, so ranges handed out earlier stay valid while it grows.
+ * Growing and inflating swap in a new {@link Storage} holding both arrays, so a reader that loads the storage once
+ * sees either the old pair or the new one, never {@code latin1 == null} together with a missing {@code utf16}.
+ * Appending is still single-writer, a rope sharing the chunk with another thread has to be published safely as usual.
+ */
+public final class CompactChunk implements CharSequence {
+//    exactly one of the arrays is set, the final fields publish them together with their contents
+    private static final class Storage {
+        final byte[] latin1;
+        final char[] utf16;
+        Storage(byte[] latin1, char[] utf16) {
+            this.latin1 = latin1;
+            this.utf16 = utf16;
+        }
+    }
+
+    private Storage storage;
+    private int length;
+//    every char before this index is Latin-1, equals length as long as nothing was inflated
+    private int latin1Prefix;
+
+    public CompactChunk(int capacity) {
+        storage = new Storage(new byte[Math.max(capacity, 1)], null);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    public int capacity() {
+        Storage current = storage;
+        return current.latin1 != null ? current.latin1.length : current.utf16.length;
+    }
+
+    public boolean isLatin1() {
+        return storage.latin1 != null;
+    }
+
+    /**
+     * Whether every char in [start, end) is known to be Latin-1.
+     */
+    public boolean isLatin1(int start, int end) {
+        return end <= latin1Prefix;
+    }
+
+    /**
+     * Bytes held per char, 1 while Latin-1 and 2 after inflation.
+     */
+    public int bytesPerChar() {
+        return storage.latin1 != null ? 1 : 2;
+    }
+
+    private void ensureCapacity(int required) {
+        int capacity = capacity();
+        if (required <= capacity) {
+            return;
+        }
+        int expanded = Math.max(capacity * 2, required);
+        Storage current = storage;
+        if (current.latin1 != null) {
+            storage = new Storage(Arrays.copyOf(current.latin1, expanded), null);
+        } else {
+            storage = new Storage(null, Arrays.copyOf(current.utf16, expanded));
+        }
+    }
+
+    private char[] inflate(byte[] latin1) {
+        char[] inflated = new char[latin1.length];
+        for (int i = 0; i < length; i++) {
+            inflated[i] = (char) (latin1[i] & 0xFF);
+        }
+        storage = new Storage(null, inflated);
+        return inflated;
+    }
+
+    public CompactChunk append(char c) {
+        ensureCapacity(length + 1);
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        if (latin1 != null) {
+            if (c <= 0xFF) {
+                latin1[length++] = (byte) c;
+                latin1Prefix = length;
+                return this;
+            }
+            utf16 = inflate(latin1);
+        }
+        utf16[length++] = c;
+        return this;
+    }
+
+    public CompactChunk append(CharSequence cs, int start, int end) {
+        ensureCapacity(length + end - start);
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        int i = start;
+        if (latin1 != null) {
+            for (; i < end; i++) {
+                char c = cs.charAt(i);
+                if (c > 0xFF) {
+                    break;
+                }
+                latin1[length++] = (byte) c;
+            }
+            latin1Prefix = length;
+            if (i == end) {
+                return this;
+            }
+            utf16 = inflate(latin1);
+        }
+        if (cs instanceof String str) {
+            str.getChars(i, end, utf16, length);
+            length += end - i;
+        } else {
+            for (; i < end; i++) {
+                utf16[length++] = cs.charAt(i);
+            }
+        }
+        return this;
+    }
+
+    public CompactChunk append(char[] src, int offset, int count) {
+        ensureCapacity(length + count);
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        int i = offset;
+        int end = offset + count;
+        if (latin1 != null) {
+            for (; i < end; i++) {
+                char c = src[i];
+                if (c > 0xFF) {
+                    break;
+                }
+                latin1[length++] = (byte) c;
+            }
+            latin1Prefix = length;
+            if (i == end) {
+                return this;
+            }
+            utf16 = inflate(latin1);
+        }
+        System.arraycopy(src, i, utf16, length, end - i);
+        length += end - i;
+        return this;
+    }
+
+    /**
+     * Appends {@code count} bytes, each decoded as one Latin-1 char.
+     */
+    public CompactChunk appendLatin1(byte[] src, int offset, int count) {
+        ensureCapacity(length + count);
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        if (latin1 != null) {
+            System.arraycopy(src, offset, latin1, length, count);
+            length += count;
+            latin1Prefix = length;
+        } else {
+            for (int i = offset; i < offset + count; i++) {
+                utf16[length++] = (char) (src[i] & 0xFF);
+            }
+        }
+        return this;
+    }
+
+    public CompactChunk append(CharSequence cs) {
+        return append(cs, 0, cs.length());
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        Storage current = storage;
+        return current.latin1 != null ? (char) (current.latin1[index] & 0xFF) : current.utf16[index];
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        if (latin1 != null) {
+            for (int i = srcBegin; i < srcEnd; i++) {
+                dst[dstBegin++] = (char) (latin1[i] & 0xFF);
+            }
+        } else {
+            System.arraycopy(utf16, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+        }
+    }
+
+    /**
+     * Copies [srcBegin, srcEnd) as Latin-1 bytes, the range must be Latin-1 (see {@link #isLatin1(int, int)}).
+     */
+    public void getBytes(int srcBegin, int srcEnd, byte[] dst, int dstBegin) {
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        if (latin1 != null) {
+            System.arraycopy(latin1, srcBegin, dst, dstBegin, srcEnd - srcBegin);
+        } else {
+            for (int i = srcBegin; i < srcEnd; i++) {
+                dst[dstBegin++] = (byte) utf16[i];
+            }
+        }
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        Storage current = storage;
+        byte[] latin1 = current.latin1;
+        char[] utf16 = current.utf16;
+        if (latin1 != null) {
+            return new String(latin1, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return new String(utf16, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length);
+    }
+}
@@ -0,0 +1,94 @@
+package CustomString;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Rope builder that many threads can append to at once without a lock.
+ * Each append reserves a slot with one atomic increment and publishes its sequence into it.
+ * Slots live in segments that are allocated on first use and double in size, segment k holds
+ * {@code FIRST_SEGMENT_SIZE << k} slots, so an empty builder costs a 27-entry directory and a small one a single segment.
+ * {@link #snapshot()} returns an {@link ArrayRope} over the longest prefix of published slots,
+ * so it never sees a gap and never blocks producers. It copies one reference per published piece,
+ * a snapshot costs O(pieces) time and space and successive snapshots do not share anything.
+ */
+public class ConcurrentRopeBuilder {
+    private static final int FIRST_SEGMENT_SHIFT = 4;
+    private static final int FIRST_SEGMENT_SIZE = 1 << FIRST_SEGMENT_SHIFT;
+//    segments 0..26 cover slots up to Integer.MAX_VALUE - FIRST_SEGMENT_SIZE
+    private static final int MAX_SEGMENTS = 31 - FIRST_SEGMENT_SHIFT;
+    private static final int MAX_PIECES = Integer.MAX_VALUE - FIRST_SEGMENT_SIZE;
+
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicReferenceArray<AtomicReferenceArray<CharSequence>> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+
+    private static int segmentIndex(int slot) {
+//        slot + FIRST_SEGMENT_SIZE has its highest bit at FIRST_SEGMENT_SHIFT + segment index
+        return 31 - Integer.numberOfLeadingZeros(slot + FIRST_SEGMENT_SIZE) - FIRST_SEGMENT_SHIFT;
+    }
+
+    private static int segmentOffset(int slot, int segmentIndex) {
+        return slot + FIRST_SEGMENT_SIZE - (FIRST_SEGMENT_SIZE << segmentIndex);
+    }
+
+    private AtomicReferenceArray<CharSequence> segment(int segmentIndex) {
+        AtomicReferenceArray<CharSequence> segment = segments.get(segmentIndex);
+        if (segment == null) {
+//            several producers may race to create the segment, the first CAS wins
+            AtomicReferenceArray<CharSequence> created = new AtomicReferenceArray<>(FIRST_SEGMENT_SIZE << segmentIndex);
+            segment = segments.compareAndExchange(segmentIndex, null, created);
+            if (segment == null) {
+                segment = created;
+            }
+        }
+        return segment;
+    }
+
+    public ConcurrentRopeBuilder append(CharSequence cs) {
+        if (cs.isEmpty()) {
+            return this;
+        }
+        int slot = reserved.getAndIncrement();
+        if (slot < 0 || slot >= MAX_PIECES) {
+            throw new IllegalStateException("capacity of " + MAX_PIECES + " pieces exceeded");
+        }
+        int segment_index = segmentIndex(slot);
+        segment(segment_index).set(segmentOffset(slot, segment_index), cs);
+        return this;
+    }
+
+    /**
+     * Number of appends that have reserved a slot, some of them may not be visible to a snapshot yet.
+     */
+    public int size() {
+        int reserved_num = reserved.get();
+        return reserved_num < 0 ? MAX_PIECES : Math.min(reserved_num, MAX_PIECES);
+    }
+
+    public ArrayRope snapshot() {
+        int limit = size();
+        ArrayRope rope = new ArrayRope().setCoalesceThreshold(0);
+        int slot = 0;
+        for (int segment_index = 0; slot < limit; segment_index++) {
+            AtomicReferenceArray<CharSequence> segment = segments.get(segment_index);
+            if (segment == null) {
+                break;
+            }
+            int segment_end = Math.min(segment.length(), limit - slot);
+            for (int offset = 0; offset < segment_end; offset++, slot++) {
+                CharSequence cs = segment.get(offset);
+                if (cs == null) {
+//                    reserved but not yet published, the consistent prefix ends here
+                    return rope;
+                }
+                rope.append(cs);
+            }
+        }
+        return rope;
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
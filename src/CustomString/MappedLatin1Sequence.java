@@ -0,0 +1,66 @@
+package CustomString;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only char view over a region of a (typically memory-mapped) byte buffer.
+ * Every byte is decoded as one Latin-1 char on access, so ASCII and ISO-8859-1 files
+ * can be wrapped without copying them into the heap.
+ */
+public final class MappedLatin1Sequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    public MappedLatin1Sequence(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", capacity " + buffer.capacity());
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public MappedLatin1Sequence(ByteBuffer buffer) {
+        this(buffer, 0, buffer.capacity());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public MappedLatin1Sequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        return new MappedLatin1Sequence(buffer, offset + start, end - start);
+    }
+
+    public void getBytes(int srcBegin, int srcEnd, byte[] dst, int dstBegin) {
+        buffer.get(offset + srcBegin, dst, dstBegin, srcEnd - srcBegin);
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        for (int i = srcBegin; i < srcEnd; i++) {
+            dst[dstBegin++] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        getBytes(0, length, bytes, 0);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,288 @@
+package CustomString;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable rope backed by a persistent height-balanced (AVL) tree of pieces.
+ * concat() and subSequence() share every untouched subtree with their inputs and only
+ * allocate the nodes along the changed path, so both run in O(log n).
+ * Instances can be handed between threads freely as long as the contents are immutable.
+ */
+public final class PersistentRope implements CharSequence {
+    private static abstract class Node {
+        final int length;
+        final int height;
+        Node(int length, int height) {
+            this.length = length;
+            this.height = height;
+        }
+        abstract char charAt(int index);
+        abstract void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin);
+    }
+
+    private static final class Leaf extends Node {
+        final int start;
+        final CharSequence content;
+        Leaf(int start, int end, CharSequence content) {
+            super(end - start, 0);
+            this.start = start;
+            this.content = content;
+        }
+
+        @Override
+        char charAt(int index) {
+            return content.charAt(start + index);
+        }
+
+        @Override
+        void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+            int from = start + srcBegin;
+            int to = start + srcEnd;
+            if (content instanceof String str) {
+                str.getChars(from, to, dst, dstBegin);
+            } else {
+                for (int i = from; i < to; i++) {
+                    dst[dstBegin++] = content.charAt(i);
+                }
+            }
+        }
+    }
+
+    private static final class Branch extends Node {
+        final Node left;
+        final Node right;
+        Branch(Node left, Node right) {
+            super(left.length + right.length, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        char charAt(int index) {
+            Node node = this;
+            while (node instanceof Branch branch) {
+                if (index < branch.left.length) {
+                    node = branch.left;
+                } else {
+                    index -= branch.left.length;
+                    node = branch.right;
+                }
+            }
+            return node.charAt(index);
+        }
+
+        @Override
+        void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+            int left_length = left.length;
+            if (srcBegin < left_length) {
+                int left_end = Math.min(srcEnd, left_length);
+                left.getChars(srcBegin, left_end, dst, dstBegin);
+                dstBegin += left_end - srcBegin;
+            }
+            if (srcEnd > left_length) {
+                right.getChars(Math.max(srcBegin - left_length, 0), srcEnd - left_length, dst, dstBegin);
+            }
+        }
+    }
+
+    private static final Node EMPTY = new Leaf(0, 0, "");
+
+    private final Node root;
+
+    private PersistentRope(Node root) {
+        this.root = root;
+    }
+
+    public PersistentRope() {
+        this(EMPTY);
+    }
+
+    public PersistentRope(CharSequence... contents) {
+        Node node = EMPTY;
+        for (CharSequence content : contents) {
+            node = join(node, toNode(content));
+        }
+        this.root = node;
+    }
+
+    private static Node toNode(CharSequence cs) {
+        if (cs instanceof PersistentRope rope) {
+            return rope.root;
+        }
+        return new Leaf(0, cs.length(), cs);
+    }
+
+//    AVL join without a middle key, see Blelloch et al., "Just Join for Parallel Ordered Sets"
+    private static Node join(Node left, Node right) {
+        if (left.length == 0) {return right;}
+        if (right.length == 0) {return left;}
+        if (left.height > right.height + 1) {
+            return joinRight((Branch) left, right);
+        }
+        if (right.height > left.height + 1) {
+            return joinLeft(left, (Branch) right);
+        }
+        return new Branch(left, right);
+    }
+
+    private static Node joinRight(Branch left, Node right) {
+        Node spine = left.right;
+        if (spine.height <= right.height + 1) {
+            Branch joined = new Branch(spine, right);
+            if (joined.height <= left.left.height + 1) {
+                return new Branch(left.left, joined);
+            }
+            return rotateLeft(new Branch(left.left, rotateRight(joined)));
+        }
+        Node joined = joinRight((Branch) spine, right);
+        Branch result = new Branch(left.left, joined);
+        if (joined.height <= left.left.height + 1) {
+            return result;
+        }
+        return rotateLeft(result);
+    }
+
+    private static Node joinLeft(Node left, Branch right) {
+        Node spine = right.left;
+        if (spine.height <= left.height + 1) {
+            Branch joined = new Branch(left, spine);
+            if (joined.height <= right.right.height + 1) {
+                return new Branch(joined, right.right);
+            }
+            return rotateRight(new Branch(rotateLeft(joined), right.right));
+        }
+        Node joined = joinLeft(left, (Branch) spine);
+        Branch result = new Branch(joined, right.right);
+        if (joined.height <= right.right.height + 1) {
+            return result;
+        }
+        return rotateRight(result);
+    }
+
+    private static Branch rotateLeft(Branch node) {
+        Branch right = (Branch) node.right;
+        return new Branch(new Branch(node.left, right.left), right.right);
+    }
+
+    private static Branch rotateRight(Branch node) {
+        Branch left = (Branch) node.left;
+        return new Branch(left.left, new Branch(left.right, node.right));
+    }
+
+    private static Node slice(Node node, int start, int end) {
+        if (start == 0 && end == node.length) {
+            return node;
+        }
+        if (start == end) {
+            return EMPTY;
+        }
+        if (node instanceof Leaf leaf) {
+            return new Leaf(leaf.start + start, leaf.start + end, leaf.content);
+        }
+        Branch branch = (Branch) node;
+        int left_length = branch.left.length;
+        if (end <= left_length) {
+            return slice(branch.left, start, end);
+        }
+        if (start >= left_length) {
+            return slice(branch.right, start - left_length, end - left_length);
+        }
+        return join(slice(branch.left, start, left_length), slice(branch.right, 0, end - left_length));
+    }
+
+    @Override
+    public int length() {
+        return root.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.length == 0;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= root.length) {
+            throw new StringIndexOutOfBoundsException("index " + index + ", length " + root.length);
+        }
+        return root.charAt(index);
+    }
+
+    @Override
+    public PersistentRope subSequence(int start, int end) {
+        if (start < 0 || start > end || end > root.length) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + root.length);
+        }
+        return new PersistentRope(slice(root, start, end));
+    }
+
+    public PersistentRope concat(CharSequence cs) {
+        if (cs.isEmpty()) {
+            return this;
+        }
+        return new PersistentRope(join(root, toNode(cs)));
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > root.length) {
+            throw new StringIndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + root.length);
+        }
+        if (srcBegin < srcEnd) {
+            root.getChars(srcBegin, srcEnd, dst, dstBegin);
+        }
+    }
+
+    @Override
+    public String toString() {
+        char[] charBuffer = new char[root.length];
+        root.getChars(0, root.length, charBuffer, 0);
+        return new String(charBuffer);
+    }
+
+    @Override
+    public IntStream chars() {
+        return StreamSupport.intStream(
+                () -> Spliterators.spliterator(new PrimitiveIterator.OfInt() {
+//                    walk the leaves left to right, keeping the unvisited right subtrees on a stack
+                    private final ArrayDeque<Node> stack = new ArrayDeque<>(Math.max(root.height, 1));
+                    private Leaf leaf = nextLeaf(root);
+                    private int index = 0;
+
+                    private Leaf nextLeaf(Node node) {
+                        while (node instanceof Branch branch) {
+                            stack.push(branch.right);
+                            node = branch.left;
+                        }
+                        return (Leaf) node;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        while (index >= leaf.length) {
+                            if (stack.isEmpty()) {
+                                return false;
+                            }
+                            leaf = nextLeaf(stack.pop());
+                            index = 0;
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public int nextInt() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return leaf.content.charAt(leaf.start + index++);
+                    }
+                }, root.length, Spliterator.ORDERED),
+                Spliterator.SUBSIZED | Spliterator.SIZED | Spliterator.ORDERED,
+                false);
+    }
+}
@@ -0,0 +1,195 @@
+package CustomString;
+
+import java.util.Arrays;
+
+/**
+ * Rope with a struct-of-arrays piece table: piece starts, ends, rope offsets and contents are kept in
+ * parallel arrays instead of one object per piece. A piece costs 12 bytes of ints plus one reference,
+ * and a lookup touches the offset array and the content without an intermediate piece object.
+ * While every content is a {@code String}, charAt() takes a path specialized for it.
+ */
+public class PieceTableRope implements CharSequence {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int GROWTH_THRESHOLD = 1024;
+
+    private int[] offsets;
+    private int[] starts;
+    private int[] ends;
+    private CharSequence[] contents;
+    private int piecesLength;
+    private int length;
+    private boolean allStrings = true;
+//    piece touched by the last charAt(), lets sequential access skip the binary search
+    private int lastPieceIndex;
+
+    public PieceTableRope() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private PieceTableRope(int capacity) {
+        capacity = Math.max(capacity, 1);
+        this.offsets = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.contents = new CharSequence[capacity];
+    }
+
+    public PieceTableRope(CharSequence... contents) {
+        this(contents.length);
+        for (CharSequence content : contents) {
+            appendSequence(content);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public int piecesLength() {
+        return piecesLength;
+    }
+
+    private void expand(int increased) {
+        int target_size = piecesLength + increased;
+        int expanded_size = offsets.length;
+        while (expanded_size < target_size) {
+            expanded_size += Math.min(expanded_size, GROWTH_THRESHOLD);
+        }
+        offsets = Arrays.copyOf(offsets, expanded_size);
+        starts = Arrays.copyOf(starts, expanded_size);
+        ends = Arrays.copyOf(ends, expanded_size);
+        contents = Arrays.copyOf(contents, expanded_size);
+    }
+
+    private void appendPiece(CharSequence content, int start, int end) {
+        if (piecesLength == offsets.length) {
+            expand(1);
+        }
+        offsets[piecesLength] = length;
+        starts[piecesLength] = start;
+        ends[piecesLength] = end;
+        contents[piecesLength] = content;
+        allStrings &= content instanceof String;
+        piecesLength++;
+        length += end - start;
+    }
+
+    public PieceTableRope append(CharSequence cs) {
+        appendSequence(cs);
+        return this;
+    }
+
+//    not overridable, so the constructor can fill the arrays through it
+    private void appendSequence(CharSequence cs) {
+        if (cs.isEmpty()) {
+            return;
+        }
+        if (cs instanceof PieceTableRope rope) {
+            int appended_pieces = rope.piecesLength;
+            if (piecesLength + appended_pieces > offsets.length) {
+                expand(appended_pieces);
+            }
+            System.arraycopy(rope.starts, 0, starts, piecesLength, appended_pieces);
+            System.arraycopy(rope.ends, 0, ends, piecesLength, appended_pieces);
+            System.arraycopy(rope.contents, 0, contents, piecesLength, appended_pieces);
+            for (int i = 0; i < appended_pieces; i++) {
+                offsets[piecesLength + i] = length + rope.offsets[i];
+            }
+            piecesLength += appended_pieces;
+            length += rope.length;
+            allStrings &= rope.allStrings;
+        } else {
+            appendPiece(cs, 0, cs.length());
+        }
+    }
+
+    private int locatePiece(int index) {
+        int piece_index = lastPieceIndex;
+        if (piece_index < piecesLength && offsets[piece_index] <= index
+                && index < offsets[piece_index] + ends[piece_index] - starts[piece_index]) {
+            return piece_index;
+        }
+        if (index < 0 || index >= length) {
+            throw new StringIndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        piece_index = Arrays.binarySearch(offsets, 0, piecesLength, index);
+        if (piece_index < 0) {
+            piece_index = -piece_index - 2;
+        }
+        lastPieceIndex = piece_index;
+        return piece_index;
+    }
+
+    @Override
+    public char charAt(int index) {
+        int piece_index = locatePiece(index);
+        int content_index = starts[piece_index] + index - offsets[piece_index];
+        if (allStrings) {
+            return ((String) contents[piece_index]).charAt(content_index);
+        }
+        return contents[piece_index].charAt(content_index);
+    }
+
+    @Override
+    public PieceTableRope subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end + ", length " + length);
+        }
+        if (start == end) {
+            return new PieceTableRope();
+        }
+        int first = locatePiece(start);
+        int last = locatePiece(end - 1);
+        int sub_pieces = last - first + 1;
+        PieceTableRope sub = new PieceTableRope(sub_pieces);
+        System.arraycopy(starts, first, sub.starts, 0, sub_pieces);
+        System.arraycopy(ends, first, sub.ends, 0, sub_pieces);
+        System.arraycopy(contents, first, sub.contents, 0, sub_pieces);
+        for (int i = 0; i < sub_pieces; i++) {
+            sub.offsets[i] = offsets[first + i] - start;
+        }
+//        trim the outer pieces to the requested range
+        sub.starts[0] += start - offsets[first];
+        sub.offsets[0] = 0;
+        sub.ends[sub_pieces - 1] -= offsets[last] + ends[last] - starts[last] - end;
+        sub.piecesLength = sub_pieces;
+        sub.length = end - start;
+        sub.allStrings = allStrings;
+        return sub;
+    }
+
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length) {
+            throw new StringIndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length);
+        }
+        if (srcBegin == srcEnd) {
+            return;
+        }
+        for (int i = locatePiece(srcBegin); i < piecesLength && offsets[i] < srcEnd; i++) {
+            int from = starts[i] + Math.max(srcBegin - offsets[i], 0);
+            int to = starts[i] + Math.min(srcEnd - offsets[i], ends[i] - starts[i]);
+            CharSequence content = contents[i];
+            if (content instanceof String str) {
+                str.getChars(from, to, dst, dstBegin);
+            } else {
+                for (int j = from; j < to; j++) {
+                    dst[dstBegin + j - from] = content.charAt(j);
+                }
+            }
+            dstBegin += to - from;
+        }
+    }
+
+    @Override
+    public String toString() {
+        char[] charBuffer = new char[length];
+        getChars(0, length, charBuffer, 0);
+        return new String(charBuffer);
+    }
+}
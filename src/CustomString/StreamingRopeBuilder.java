@@ -0,0 +1,169 @@
+package CustomString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds a rope straight from a {@link Reader}, {@link InputStream} or {@link ReadableByteChannel}.
+ * Input is copied once, into fixed-size {@link CompactChunk}s that each become one piece as soon as they fill up,
+ * so nothing is read into an intermediate {@code String} first. ISO-8859-1 byte input is copied byte for byte,
+ * other charsets go through one decoder and reused I/O buffers.
+ * Filled chunks are published through a {@link ConcurrentRopeBuilder}: one thread reads,
+ * any thread may call {@link #snapshot()} meanwhile and sees every chunk filled so far.
+ */
+public class StreamingRopeBuilder {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+//    independent of the chunk size, a decoder needs room for a whole byte sequence and a surrogate pair
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final int chunkSize;
+    private final ConcurrentRopeBuilder published = new ConcurrentRopeBuilder();
+    private CompactChunk chunk;
+//    I/O buffers reused by every read of this builder
+    private char[] charBuffer;
+    private ByteBuffer byteBuffer;
+    private CharBuffer decodeBuffer;
+
+    public StreamingRopeBuilder() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingRopeBuilder(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive, got " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.chunk = new CompactChunk(chunkSize);
+    }
+
+    private void publishChunk() {
+        published.append(chunk);
+        chunk = new CompactChunk(chunkSize);
+    }
+
+    private void appendChars(char[] src, int offset, int count) {
+        while (count > 0) {
+            int taken = Math.min(count, chunkSize - chunk.length());
+            chunk.append(src, offset, taken);
+            offset += taken;
+            count -= taken;
+            if (chunk.length() == chunkSize) {
+                publishChunk();
+            }
+        }
+    }
+
+    private void appendLatin1(byte[] src, int offset, int count) {
+        while (count > 0) {
+            int taken = Math.min(count, chunkSize - chunk.length());
+            chunk.appendLatin1(src, offset, taken);
+            offset += taken;
+            count -= taken;
+            if (chunk.length() == chunkSize) {
+                publishChunk();
+            }
+        }
+    }
+
+    /**
+     * Reads {@code reader} to its end, returns the number of chars read. The reader is not closed.
+     */
+    public long read(Reader reader) throws IOException {
+        if (charBuffer == null) {
+            charBuffer = new char[IO_BUFFER_SIZE];
+        }
+        long total = 0;
+        int read;
+        while ((read = reader.read(charBuffer, 0, charBuffer.length)) >= 0) {
+            appendChars(charBuffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    public long read(InputStream in, Charset charset) throws IOException {
+        return read(Channels.newChannel(in), charset);
+    }
+
+    /**
+     * Reads a blocking {@code channel} to its end, returns the number of chars read. The channel is not closed.
+     * Malformed input is replaced like {@code new String(bytes, charset)} does.
+     */
+    public long read(ReadableByteChannel channel, Charset charset) throws IOException {
+        if (byteBuffer == null) {
+            byteBuffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+        }
+        ByteBuffer bytes = byteBuffer.clear();
+        long total = 0;
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            int read;
+            while ((read = channel.read(bytes)) >= 0) {
+                appendLatin1(bytes.array(), 0, read);
+                total += read;
+                bytes.clear();
+            }
+            return total;
+        }
+        if (decodeBuffer == null) {
+            decodeBuffer = CharBuffer.allocate(IO_BUFFER_SIZE);
+        }
+        CharBuffer chars = decodeBuffer.clear();
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        boolean eof = false;
+        while (!eof) {
+            eof = channel.read(bytes) < 0;
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, eof);
+                total += drain(chars);
+            } while (result.isOverflow());
+//            a multi-byte sequence split by the read stays in the buffer for the next round
+            bytes.compact();
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            total += drain(chars);
+        }
+        total += drain(chars);
+        return total;
+    }
+
+    private int drain(CharBuffer chars) {
+        chars.flip();
+        int count = chars.remaining();
+        appendChars(chars.array(), 0, count);
+        chars.clear();
+        return count;
+    }
+
+    /**
+     * Rope over every chunk filled so far, the chunk still being filled is not included.
+     * Safe to call from any thread while another one is reading, costs one reference copy per chunk filled so far.
+     */
+    public ArrayRope snapshot() {
+        return published.snapshot();
+    }
+
+    /**
+     * Publishes the partly filled chunk and returns a rope over everything read.
+     * Reading may go on afterwards, it continues in a new chunk.
+     */
+    public ArrayRope build() {
+        if (!chunk.isEmpty()) {
+            publishChunk();
+        }
+        return snapshot();
+    }
+}
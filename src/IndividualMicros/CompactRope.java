@@ -0,0 +1,100 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import CustomString.CompactChunk;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeAsciiString;
+
+// run with -prof gc, gc.alloc.rate.norm of the build benchmarks is the footprint of the coalesced chunks
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class CompactRope {
+//    coalescing is opt-in, every piece of both sizes goes into the compact chunks
+    public static final int COALESCE_THRESHOLD = 16;
+
+    @State(Scope.Thread)
+    public static class CompactRopeState {
+        public final long seed = 0;
+        public final int pieceNum = 10000;
+//        one piece in this many is Cyrillic in the mixed script
+        public final int mixedEvery = 16;
+        @Param({"4", "16"})
+        public int pieceSize;
+        @Param({"ascii", "mixed"})
+        public String script;
+        private final Random rand = new Random(seed);
+        public String[] parts;
+        public ArrayRope rope;
+        public String makePart(boolean cyrillic) {
+            if (!cyrillic) {
+                return makeAsciiString(pieceSize, rand);
+            }
+            char[] chars = new char[pieceSize];
+            for (int i = 0; i < pieceSize; i++) {
+                chars[i] = (char) (0x0410 + rand.nextInt(32));
+            }
+            return new String(chars);
+        }
+        @Setup
+        public void setup() {
+            parts = new String[pieceNum];
+            for (int i = 0; i < pieceNum; i++) {
+                parts[i] = makePart(script.equals("mixed") && i % mixedEvery == 0);
+            }
+            rope = new ArrayRope().setCoalesceThreshold(COALESCE_THRESHOLD);
+            for (String part : parts) {
+                rope.append(part);
+            }
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeBuild(CompactRopeState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope().setCoalesceThreshold(COALESCE_THRESHOLD);
+        for (String part : state.parts) {
+            rope.append(part);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void arrayRopeBuildToString(CompactRopeState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope().setCoalesceThreshold(COALESCE_THRESHOLD);
+        for (String part : state.parts) {
+            rope.append(part);
+        }
+        bh.consume(rope.toString());
+    }
+
+    @Benchmark
+    public void arrayRopeToString(CompactRopeState state, Blackhole bh) {
+        bh.consume(state.rope.toString());
+    }
+
+    @Benchmark
+    public void stringBuilderBuildToString(CompactRopeState state, Blackhole bh) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : state.parts) {
+            sb.append(part);
+        }
+        bh.consume(sb.toString());
+    }
+
+    @Benchmark
+    public void compactChunkBuildToString(CompactRopeState state, Blackhole bh) {
+        CompactChunk chunk = new CompactChunk(16);
+        for (String part : state.parts) {
+            chunk.append(part);
+        }
+        bh.consume(chunk.toString());
+    }
+}
@@ -2,8 +2,13 @@ package IndividualMicros;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
+import utils.AffixIndex;
+import utils.BatchQuery;
+import utils.NGramIndex;
+import utils.StringSort;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 @Fork(value = 1)
@@ -45,6 +50,171 @@ public class Compare {
         }
     }
 
+    public static String[] makeSortKeys(int keyNum, String keyKind, Random rand) {
+        final int keySize = 64;
+        final int sharedPrefixSize = 48;
+        char[] shared_prefix = new char[sharedPrefixSize];
+        for (int i = 0; i < sharedPrefixSize; i++) {
+            shared_prefix[i] = (char) ('a' + rand.nextInt(26));
+        }
+        String[] keys = new String[keyNum];
+        for (int i = 0; i < keyNum; i++) {
+            char[] chars = new char[keySize];
+            int random_from = 0;
+            if (keyKind.equals("sharedPrefix")) {
+//                keys only differ after a long common prefix, every String.compareTo has to re-read it
+                System.arraycopy(shared_prefix, 0, chars, 0, sharedPrefixSize);
+                random_from = sharedPrefixSize;
+            }
+            for (int j = random_from; j < keySize; j++) {
+                chars[j] = (char) ('a' + rand.nextInt(26));
+            }
+            keys[i] = new String(chars);
+        }
+        return keys;
+    }
+
+    @State(Scope.Thread)
+    public static class SortState {
+        public final long seed = 0;
+        @Param({"10000", "1000000"})
+        public int keyNum;
+        @Param({"random", "sharedPrefix"})
+        public String keyKind;
+        public String[] keys;
+        @Setup
+        public void setup() {
+            keys = makeSortKeys(keyNum, keyKind, new Random(seed));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ParallelSortState {
+        public final long seed = 0;
+        @Param({"1000000", "4000000"})
+        public int keyNum;
+        @Param({"random", "sharedPrefix"})
+        public String keyKind;
+        @Param({"1", "2", "4", "8", "16"})
+        public int threads;
+        public String[] keys;
+        public ForkJoinPool pool;
+        @Setup
+        public void setup() {
+            keys = makeSortKeys(keyNum, keyKind, new Random(seed));
+            pool = new ForkJoinPool(threads);
+        }
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AffixIndexState {
+        public final long seed = 0;
+        public final int queryNum = 100;
+        @Param({"10000", "1000000"})
+        public int corpusSize;
+        @Param({"1", "3", "10"})
+        public int queryLength;
+        public String[] corpus;
+        public String[] prefixQueries;
+        public String[] suffixQueries;
+        public AffixIndex prefixIndex;
+        public AffixIndex suffixIndex;
+        @Setup
+        public void setup() {
+            Random rand = new Random(seed);
+            corpus = makeSortKeys(corpusSize, "random", rand);
+            prefixQueries = new String[queryNum];
+            suffixQueries = new String[queryNum];
+            for (int i = 0; i < queryNum; i++) {
+                String key = corpus[rand.nextInt(corpusSize)];
+                prefixQueries[i] = key.substring(0, queryLength);
+                suffixQueries[i] = key.substring(key.length() - queryLength);
+            }
+            prefixIndex = AffixIndex.ofPrefixes(corpus);
+            suffixIndex = AffixIndex.ofSuffixes(corpus);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NGramIndexState {
+        public final long seed = 0;
+        public final int queryNum = 100;
+        public final int queryLength = 10;
+        public final int gramSize = 3;
+        @Param({"10000", "100000", "1000000"})
+        public int corpusSize;
+        public String[] corpus;
+        public String[] queries;
+        public NGramIndex index;
+        @Setup
+        public void setup() {
+            Random rand = new Random(seed);
+            corpus = makeSortKeys(corpusSize, "random", rand);
+            queries = new String[queryNum];
+            for (int i = 0; i < queryNum; i++) {
+                String key = corpus[rand.nextInt(corpusSize)];
+                int start = rand.nextInt(key.length() - queryLength);
+                queries[i] = key.substring(start, start + queryLength);
+            }
+        }
+//        ids are never reused, a fresh index per iteration keeps add/remove from growing it without bound
+        @Setup(Level.Iteration)
+        public void setupIndex() {
+            index = new NGramIndex(gramSize, corpus);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class IndexSizeCounters {
+        public long postingBytes;
+    }
+
+    @State(Scope.Thread)
+    public static class BatchQueryState {
+        public final long seed = 0;
+        public final int corpusSize = 100000;
+        public final int affixLength = 3;
+        public final int subLength = 4;
+        @Param({"10", "100", "1000"})
+        public int batchSize;
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+        public String[] corpus;
+        public BatchQuery.Kind[] kinds;
+        public String[] patterns;
+        public BatchQuery batch;
+        public ForkJoinPool pool;
+        @Setup
+        public void setup() {
+            Random rand = new Random(seed);
+            corpus = makeSortKeys(corpusSize, "random", rand);
+            kinds = new BatchQuery.Kind[batchSize];
+            patterns = new String[batchSize];
+            batch = new BatchQuery();
+//            an even mix of the three kinds, each taken from a corpus string so every query has matches
+            for (int i = 0; i < batchSize; i++) {
+                String key = corpus[rand.nextInt(corpusSize)];
+                kinds[i] = BatchQuery.Kind.values()[i % 3];
+                patterns[i] = switch (kinds[i]) {
+                    case STARTS_WITH -> key.substring(0, affixLength);
+                    case ENDS_WITH -> key.substring(key.length() - affixLength);
+                    case CONTAINS -> key.substring(key.length() / 2, key.length() / 2 + subLength);
+                };
+                batch.add(kinds[i], patterns[i]);
+            }
+            pool = new ForkJoinPool(threads);
+        }
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
     @Measurement(iterations = 3, time = 1000, timeUnit = TimeUnit.MICROSECONDS)
     @Benchmark
     public void sort(CompareBenchmarkState state, Blackhole bh) {
@@ -87,4 +257,158 @@ public class Compare {
         }
         bh.consume(result);
     }
+
+//    the sort benchmarks below sort a fresh copy every time, so no run sees already sorted input
+    @Benchmark
+    public void sortKeysArraysSort(SortState state, Blackhole bh) {
+        String[] keys = state.keys.clone();
+        Arrays.sort(keys);
+        bh.consume(keys);
+    }
+
+    @Benchmark
+    public void sortKeysMultikey(SortState state, Blackhole bh) {
+        String[] keys = state.keys.clone();
+        StringSort.sort(keys);
+        bh.consume(keys);
+    }
+
+    @Benchmark
+    public void parallelSortKeysArraysParallelSort(ParallelSortState state, Blackhole bh) {
+        String[] keys = state.keys.clone();
+//        called from a worker of the pool, the sort tasks stay in that pool instead of the common one
+        state.pool.submit(() -> Arrays.parallelSort(keys)).join();
+        bh.consume(keys);
+    }
+
+    @Benchmark
+    public void parallelSortKeysMultikey(ParallelSortState state, Blackhole bh) {
+        String[] keys = state.keys.clone();
+        StringSort.parallelSort(keys, state.pool);
+        bh.consume(keys);
+    }
+
+//    build cost and, with -prof gc, the memory allocated for an index
+    @Benchmark
+    public void affixIndexBuildPrefix(AffixIndexState state, Blackhole bh) {
+        bh.consume(AffixIndex.ofPrefixes(state.corpus));
+    }
+
+    @Benchmark
+    public void affixIndexBuildSuffix(AffixIndexState state, Blackhole bh) {
+        bh.consume(AffixIndex.ofSuffixes(state.corpus));
+    }
+
+    @Benchmark
+    public void startsWithScanCount(AffixIndexState state, Blackhole bh) {
+        for (String query : state.prefixQueries) {
+            int count = 0;
+            for (String key : state.corpus) {
+                if (key.startsWith(query)) {
+                    count++;
+                }
+            }
+            bh.consume(count);
+        }
+    }
+
+    @Benchmark
+    public void startsWithIndexCount(AffixIndexState state, Blackhole bh) {
+        for (String query : state.prefixQueries) {
+            bh.consume(state.prefixIndex.count(query));
+        }
+    }
+
+    @Benchmark
+    public void startsWithIndexIds(AffixIndexState state, Blackhole bh) {
+        for (String query : state.prefixQueries) {
+            bh.consume(state.prefixIndex.ids(query));
+        }
+    }
+
+    @Benchmark
+    public void endsWithScanCount(AffixIndexState state, Blackhole bh) {
+        for (String query : state.suffixQueries) {
+            int count = 0;
+            for (String key : state.corpus) {
+                if (key.endsWith(query)) {
+                    count++;
+                }
+            }
+            bh.consume(count);
+        }
+    }
+
+    @Benchmark
+    public void endsWithIndexCount(AffixIndexState state, Blackhole bh) {
+        for (String query : state.suffixQueries) {
+            bh.consume(state.suffixIndex.count(query));
+        }
+    }
+
+    @Benchmark
+    public void endsWithIndexIds(AffixIndexState state, Blackhole bh) {
+        for (String query : state.suffixQueries) {
+            bh.consume(state.suffixIndex.ids(query));
+        }
+    }
+
+    @Benchmark
+    public void nGramIndexBuild(NGramIndexState state, IndexSizeCounters counters, Blackhole bh) {
+        NGramIndex index = new NGramIndex(state.gramSize, state.corpus);
+        counters.postingBytes += index.postingBytes();
+        bh.consume(index);
+    }
+
+    @Benchmark
+    public void containsScan(NGramIndexState state, Blackhole bh) {
+        for (String query : state.queries) {
+            int count = 0;
+            for (String key : state.corpus) {
+                if (key.indexOf(query) >= 0) {
+                    count++;
+                }
+            }
+            bh.consume(count);
+        }
+    }
+
+    @Benchmark
+    public void nGramIndexFind(NGramIndexState state, Blackhole bh) {
+        for (String query : state.queries) {
+            bh.consume(state.index.find(query));
+        }
+    }
+
+    @Benchmark
+    public void nGramIndexAddRemove(NGramIndexState state, Blackhole bh) {
+        for (String query : state.queries) {
+            int id = state.index.add(query);
+            bh.consume(state.index.remove(id));
+        }
+    }
+
+    @Benchmark
+    public void batchQueryPerQueryLoop(BatchQueryState state, Blackhole bh) {
+        for (int query = 0; query < state.batchSize; query++) {
+            String pattern = state.patterns[query];
+            long[] bits = new long[(state.corpusSize + 63) >>> 6];
+            for (int id = 0; id < state.corpusSize; id++) {
+                boolean matched = switch (state.kinds[query]) {
+                    case STARTS_WITH -> state.corpus[id].startsWith(pattern);
+                    case ENDS_WITH -> state.corpus[id].endsWith(pattern);
+                    case CONTAINS -> state.corpus[id].contains(pattern);
+                };
+                if (matched) {
+                    bits[id >>> 6] |= 1L << id;
+                }
+            }
+            bh.consume(bits);
+        }
+    }
+
+    @Benchmark
+    public void batchQuery(BatchQueryState state, Blackhole bh) {
+        bh.consume(state.batch.run(state.corpus, state.pool));
+    }
 }
@@ -8,6 +8,9 @@ import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import utils.FormatTemplate;
+
+import static utils.Utils.makeAsciiString;
 import static utils.Utils.makeRandomString;
 
 @Fork(value = 1)
@@ -31,6 +34,11 @@ public class Concat {
         public String[] str2Arr;
         public String[] str1str2Arr;
         public String result;
+        public ArrayRope rope;
+        public ArrayRope asciiRope;
+        public FormatTemplate pairTemplate;
+        public FormatTemplate batchTemplate;
+        public FormatTemplate logTemplate;
         @Setup
         public void setup() {
             str1 = makeRandomString(stringLength, rand);
@@ -42,9 +50,20 @@ public class Concat {
             str1str2Arr[0] = str1;
             Arrays.fill(str1str2Arr, 1, iter + 1, str2);
             result = str1 + String.join("", str2Arr);
+            rope = new ArrayRope(str1str2Arr);
+//            makeRandomString is mostly outside Latin-1, the same layout over ASCII pieces takes the Latin-1 toString path
+            String[] asciiArr = new String[iter + 1];
+            asciiArr[0] = makeAsciiString(stringLength, rand);
+            Arrays.fill(asciiArr, 1, iter + 1, makeAsciiString(stringLength, rand));
+            asciiRope = new ArrayRope(asciiArr);
+            pairTemplate = FormatTemplate.compile("%s%s");
+            batchTemplate = FormatTemplate.compile(formatStr);
+            logTemplate = FormatTemplate.compile(LOG_FORMAT);
         }
     }
 
+    public static final String LOG_FORMAT = "[%s] request %d from %s took %d ms: %s";
+
     public String[] arrayFill(ConcatBenchmarkState state) {
         String[] array = new String[state.iter + 1];
         array[0] = state.str1;
@@ -123,6 +142,57 @@ public class Concat {
         return str;
     }
 
+    @Benchmark
+    public String templateFormat(ConcatBenchmarkState state, Blackhole bh) {
+        String str = state.str1;
+        for(int i = 0; i < state.iter; i++) {
+            str = state.pairTemplate.format(str, state.str2);
+        }
+        bh.consume(str);
+        return str;
+    }
+
+    @Benchmark
+    public String templateFormatBatch(ConcatBenchmarkState state, Blackhole bh) {
+        String[] str1str2Arr = arrayFill(state);
+        String str = state.batchTemplate.format((Object[]) str1str2Arr);
+        bh.consume(str);
+        return str;
+    }
+
+    @Benchmark
+    public String templateFormatBatchArrayRope(ConcatBenchmarkState state, Blackhole bh) {
+        String[] str1str2Arr = arrayFill(state);
+        String str = state.batchTemplate.appendTo(new ArrayRope(), (Object[]) str1str2Arr).toString();
+        bh.consume(str);
+        return str;
+    }
+
+//    iter log lines from one small template, the case the precompiled templates are meant for
+    @Benchmark
+    public void formatLogLines(ConcatBenchmarkState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            bh.consume(String.format(LOG_FORMAT, state.str1, i, state.str2, i * 7L, state.str2));
+        }
+    }
+
+    @Benchmark
+    public void templateFormatLogLines(ConcatBenchmarkState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            bh.consume(state.logTemplate.format(state.str1, i, state.str2, i * 7L, state.str2));
+        }
+    }
+
+    @Benchmark
+    public void stringBuilderLogLines(ConcatBenchmarkState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append('[').append(state.str1).append("] request ").append(i).append(" from ").append(state.str2)
+                    .append(" took ").append(i * 7L).append(" ms: ").append(state.str2);
+            bh.consume(sb.toString());
+        }
+    }
+
     @Benchmark
     public String streamAPI(ConcatBenchmarkState state, Blackhole bh) {
         String str = state.str1;
@@ -241,4 +311,24 @@ public class Concat {
         ArrayRope arrayRope = new ArrayRope(state.str1str2Arr);
         return arrayRope.toString();
     }
+
+    @Benchmark
+    public char[] arrayRopeGetChars(ConcatBenchmarkState state, Blackhole bh) {
+        ArrayRope arrayRope = new ArrayRope(state.str1str2Arr);
+        char[] chars = new char[arrayRope.length()];
+        arrayRope.getChars(0, chars.length, chars, 0);
+        return chars;
+    }
+
+    @Benchmark
+    public String arrayRopeToString(ConcatBenchmarkState state, Blackhole bh) {
+//        random pieces are mostly UTF-16, this copies through a char[] every call
+        return state.rope.toString();
+    }
+
+    @Benchmark
+    public String arrayRopeToStringAscii(ConcatBenchmarkState state, Blackhole bh) {
+//        the first call finds every piece Latin-1, later calls build the String from bytes
+        return state.asciiRope.toString();
+    }
 }
\ No newline at end of file
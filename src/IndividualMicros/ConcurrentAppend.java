@@ -0,0 +1,118 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import CustomString.ConcurrentRopeBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static utils.Utils.makeRandomString;
+
+// every iteration appends batchSize pieces per thread into a fresh target, run with -t 1..64 to scale producers
+@Fork(value = 1)
+@Warmup(iterations = 5, batchSize = 10000)
+@Measurement(iterations = 10, batchSize = 10000)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class ConcurrentAppend {
+    @State(Scope.Benchmark)
+    public static class ConcurrentAppendState {
+        public final long seed = 0;
+        @Param({"5", "100"})
+        public int pieceSize;
+        private final Random rand = new Random(seed);
+        public String piece;
+        public StringBuffer buffer;
+        public ArrayRope rope;
+        public final ReentrantLock ropeLock = new ReentrantLock();
+        public ConcurrentRopeBuilder builder;
+        @Setup(Level.Trial)
+        public void setupPiece() {
+            piece = makeRandomString(pieceSize, rand);
+        }
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            buffer = new StringBuffer();
+            rope = new ArrayRope().setCoalesceThreshold(0);
+            builder = new ConcurrentRopeBuilder();
+        }
+    }
+
+    @Benchmark
+    public void stringBuffer(ConcurrentAppendState state) {
+        state.buffer.append(state.piece);
+    }
+
+    @Benchmark
+    public void lockedArrayRope(ConcurrentAppendState state) {
+        state.ropeLock.lock();
+        try {
+            state.rope.append(state.piece);
+        } finally {
+            state.ropeLock.unlock();
+        }
+    }
+
+    @Benchmark
+    public void concurrentRope(ConcurrentAppendState state) {
+        state.builder.append(state.piece);
+    }
+
+    @Benchmark
+    @Group("stringBufferSnapshot")
+    @GroupThreads(3)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void stringBufferProducer(ConcurrentAppendState state) {
+        state.buffer.append(state.piece);
+    }
+
+    @Benchmark
+    @Group("stringBufferSnapshot")
+    @GroupThreads(1)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void stringBufferReader(ConcurrentAppendState state, Blackhole bh) {
+        bh.consume(state.buffer.toString());
+    }
+
+    @Benchmark
+    @Group("lockedArrayRopeSnapshot")
+    @GroupThreads(3)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void lockedArrayRopeProducer(ConcurrentAppendState state) {
+        lockedArrayRope(state);
+    }
+
+    @Benchmark
+    @Group("lockedArrayRopeSnapshot")
+    @GroupThreads(1)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void lockedArrayRopeReader(ConcurrentAppendState state, Blackhole bh) {
+        state.ropeLock.lock();
+        try {
+            bh.consume(new ArrayRope(state.rope));
+        } finally {
+            state.ropeLock.unlock();
+        }
+    }
+
+    @Benchmark
+    @Group("concurrentRopeSnapshot")
+    @GroupThreads(3)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void concurrentRopeProducer(ConcurrentAppendState state) {
+        state.builder.append(state.piece);
+    }
+
+    @Benchmark
+    @Group("concurrentRopeSnapshot")
+    @GroupThreads(1)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public void concurrentRopeReader(ConcurrentAppendState state, Blackhole bh) {
+        bh.consume(state.builder.snapshot());
+    }
+}
@@ -0,0 +1,107 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeRandomString;
+
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class Hash {
+    @State(Scope.Thread)
+    public static class HashState {
+        public final long seed = 0;
+        @Param({"10", "1000", "10000"})
+        public int pieceNum;
+        @Param({"5", "100"})
+        public int pieceSize;
+        private final Random rand = new Random(seed);
+        public String[] parts;
+        public ArrayRope rope;
+        public ArrayRope sharedCopy;
+        public ArrayRope distinctCopy;
+        public HashMap<ArrayRope, Integer> ropeMap;
+        public HashMap<String, Integer> stringMap;
+        @Setup
+        public void setup() {
+            parts = new String[pieceNum];
+            for (int i = 0; i < pieceNum; i++) {
+                parts[i] = makeRandomString(pieceSize, rand);
+            }
+            rope = new ArrayRope(parts);
+            sharedCopy = new ArrayRope(rope);
+            distinctCopy = new ArrayRope();
+            for (String part : parts) {
+                distinctCopy.append(new String(part.toCharArray()));
+            }
+            ropeMap = new HashMap<>();
+            ropeMap.put(rope, 0);
+            stringMap = new HashMap<>();
+            stringMap.put(rope.toString(), 0);
+        }
+    }
+
+    @Benchmark
+    public void toStringHashCode(HashState state, Blackhole bh) {
+        bh.consume(state.rope.toString().hashCode());
+    }
+
+    @Benchmark
+    public void arrayRopeHashCode(HashState state, Blackhole bh) {
+//        a fresh rope over the same pieces, so only the per-piece hashes are cached
+        bh.consume(new ArrayRope(state.rope).hashCode());
+    }
+
+    @Benchmark
+    public void arrayRopeAppendHashCode(HashState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope();
+        rope.hashCode();
+        for (String part : state.parts) {
+            rope.append(part);
+            bh.consume(rope.hashCode());
+        }
+    }
+
+    @Benchmark
+    public void toStringAppendHashCode(HashState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope();
+        for (String part : state.parts) {
+            rope.append(part);
+            bh.consume(rope.toString().hashCode());
+        }
+    }
+
+    @Benchmark
+    public void toStringEquals(HashState state, Blackhole bh) {
+        bh.consume(state.rope.toString().equals(state.distinctCopy.toString()));
+    }
+
+    @Benchmark
+    public void arrayRopeEqualsShared(HashState state, Blackhole bh) {
+        bh.consume(state.rope.equals(state.sharedCopy));
+    }
+
+    @Benchmark
+    public void arrayRopeEqualsDistinct(HashState state, Blackhole bh) {
+        bh.consume(state.rope.equals(state.distinctCopy));
+    }
+
+    @Benchmark
+    public void toStringMapGet(HashState state, Blackhole bh) {
+        bh.consume(state.stringMap.get(state.distinctCopy.toString()));
+    }
+
+    @Benchmark
+    public void arrayRopeMapGet(HashState state, Blackhole bh) {
+        bh.consume(state.ropeMap.get(new ArrayRope(state.distinctCopy)));
+    }
+}
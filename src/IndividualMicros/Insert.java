@@ -0,0 +1,132 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import CustomString.BTreeRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeRandomString;
+
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class Insert {
+    @State(Scope.Thread)
+    public static class InsertState {
+        public final long seed = 0;
+        @Param({"10000", "100000", "1000000"})
+        public int pieceNum;
+        public final int pieceSize = 5;
+        public final int insertIter = 100;
+        private final Random rand = new Random(seed);
+        public String piece;
+        public ArrayRope arrayRope;
+        public BTreeRope bTreeRope;
+        public int[] randomIndices;
+        @Setup(Level.Iteration)
+        public void setup() {
+            piece = makeRandomString(pieceSize, rand);
+            arrayRope = new ArrayRope();
+            bTreeRope = new BTreeRope();
+            for (int i = 0; i < pieceNum; i++) {
+                arrayRope.append(piece);
+                bTreeRope.append(piece);
+            }
+            randomIndices = new int[insertIter];
+            for (int i = 0; i < insertIter; i++) {
+                randomIndices[i] = rand.nextInt(pieceNum * pieceSize);
+            }
+        }
+    }
+
+//    inserts mutate the rope, so every invocation gets a fresh copy of a rope with exactly pieceNum pieces
+    @State(Scope.Thread)
+    public static class BTreeInsertState {
+        public final long seed = 0;
+        @Param({"10000", "100000", "1000000"})
+        public int pieceNum;
+        public final int pieceSize = 5;
+        public final int insertIter = 100;
+        private final Random rand = new Random(seed);
+        public String piece;
+        public BTreeRope base;
+        public BTreeRope bTreeRope;
+        public int[] randomIndices;
+        @Setup(Level.Trial)
+        public void setup() {
+            piece = makeRandomString(pieceSize, rand);
+            base = new BTreeRope();
+            for (int i = 0; i < pieceNum; i++) {
+                base.append(piece);
+            }
+            randomIndices = new int[insertIter];
+            for (int i = 0; i < insertIter; i++) {
+                randomIndices[i] = rand.nextInt(pieceNum * pieceSize);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void copy() {
+//            bulk-loads new nodes over the shared immutable pieces
+            bTreeRope = new BTreeRope(base);
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeBuild(InsertState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope();
+        for (int i = 0; i < state.pieceNum; i++) {
+            rope.append(state.piece);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void bTreeRopeBuild(InsertState state, Blackhole bh) {
+        BTreeRope rope = new BTreeRope();
+        for (int i = 0; i < state.pieceNum; i++) {
+            rope.append(state.piece);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void bTreeRopePrepend(BTreeInsertState state, Blackhole bh) {
+        for (int i = 0; i < state.insertIter; i++) {
+            state.bTreeRope.prepend(state.piece);
+        }
+        bh.consume(state.bTreeRope);
+    }
+
+    @Benchmark
+    public void bTreeRopeInsertMiddle(BTreeInsertState state, Blackhole bh) {
+        for (int index : state.randomIndices) {
+            state.bTreeRope.insert(index, state.piece);
+        }
+        bh.consume(state.bTreeRope);
+    }
+
+    @Benchmark
+    public void arrayRopeRandomCharAt(InsertState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.randomIndices) {
+            sum += state.arrayRope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void bTreeRopeRandomCharAt(InsertState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.randomIndices) {
+            sum += state.bTreeRope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+}
@@ -0,0 +1,115 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeAsciiString;
+
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+
+public class MappedFile {
+    @State(Scope.Benchmark)
+    public static class MappedFileState {
+        public final long seed = 0;
+        @Param({"1048576", "67108864", "1073741824"})
+        public int fileSize;
+        public final int lineSize = 1000;
+        public final int patternSize = 10;
+        public final int sampleNum = 1000;
+        private final Random rand = new Random(seed);
+        public Path path;
+        public String pattern;
+        public int[] sampleIndices;
+        public String trace;
+        public ArrayRope rope;
+        @Setup
+        public void setup() throws IOException {
+            path = Files.createTempFile("string-benchmark", ".log");
+            byte[] lineBytes = makeAsciiString(lineSize, rand).getBytes(StandardCharsets.ISO_8859_1);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                int written = 0;
+                while (written < fileSize) {
+                    int size = Math.min(lineBytes.length, fileSize - written);
+                    out.write(lineBytes, 0, size);
+                    written += size;
+                }
+            }
+//            plant the pattern three quarters into the file, so indexOf scans most of it before the match
+            byte[] patternBytes = makeAsciiString(patternSize, rand).getBytes(StandardCharsets.ISO_8859_1);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(patternBytes), fileSize / 4 * 3);
+            }
+            pattern = new String(patternBytes, StandardCharsets.ISO_8859_1);
+            sampleIndices = new int[sampleNum];
+            for (int i = 0; i < sampleNum; i++) {
+                sampleIndices[i] = rand.nextInt(fileSize);
+            }
+//            loaded once per trial for the access benchmarks, loading itself is measured by readString and mapArrayRope
+            trace = Files.readString(path, StandardCharsets.ISO_8859_1);
+            rope = ArrayRope.mapFile(path);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            trace = null;
+            rope = null;
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public void readString(MappedFileState state, Blackhole bh) throws IOException {
+        bh.consume(Files.readString(state.path, StandardCharsets.ISO_8859_1));
+    }
+
+//    the mapping is released only when the rope is collected, like the String readString allocates
+    @Benchmark
+    public void mapArrayRope(MappedFileState state, Blackhole bh) throws IOException {
+        bh.consume(ArrayRope.mapFile(state.path));
+    }
+
+    @Benchmark
+    public void stringCharAt(MappedFileState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.sampleIndices) {
+            sum += state.trace.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void mapArrayRopeCharAt(MappedFileState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.sampleIndices) {
+            sum += state.rope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void stringIndexOf(MappedFileState state, Blackhole bh) {
+        bh.consume(state.trace.indexOf(state.pattern));
+    }
+
+    @Benchmark
+    public void mapArrayRopeIndexOf(MappedFileState state, Blackhole bh) {
+        bh.consume(state.rope.indexOf(state.pattern));
+    }
+}
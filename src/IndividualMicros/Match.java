@@ -1,16 +1,26 @@
 package IndividualMicros;
 
+import CustomString.ArrayRope;
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import utils.AhoCorasick;
+import utils.HorspoolSearcher;
+import utils.PatternCache;
+import utils.Searcher;
+import utils.TwoWaySearcher;
+import utils.VectorSearch;
+
+import static utils.Utils.makeAsciiString;
 import static utils.Utils.makeRandomString;
 
-@Fork(value = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
 @Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
 @Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
 @BenchmarkMode(Mode.AverageTime)
@@ -26,9 +36,14 @@ public class Match {
         @Param({"3", "10", "100"})
         public int patternSize;
         public final int patternNum = 3;
+        public final int ropePieceSize = 8;
         private final Random rand = new Random(seed);
         public String trace;
+        public ArrayRope traceRope;
         public String pattern;
+        public Searcher searcher;
+        public Searcher horspool;
+        public Searcher twoWay;
         @Setup
         public void setup() {
             pattern = makeRandomString(patternSize, rand);
@@ -40,6 +55,127 @@ public class Match {
                 traceBuilder.append(makeRandomString(non_pattern_length_per_part, rand));
             }
             trace = traceBuilder.toString();
+            traceRope = new ArrayRope().setCoalesceThreshold(0);
+            for (int i = 0; i < trace.length(); i += ropePieceSize) {
+                traceRope.append(trace.substring(i, Math.min(i + ropePieceSize, trace.length())));
+            }
+            searcher = Searcher.of(pattern);
+            horspool = new HorspoolSearcher(pattern);
+            twoWay = new TwoWaySearcher(pattern);
+        }
+    }
+
+//    same layout as MatchState over printable ASCII, so the byte[] search sees the same text as the char variants
+    @State(Scope.Thread)
+    public static class AsciiMatchState {
+        public final int iter = 100;
+        public final long seed = 0;
+        @Param({"20", "100", "500", "1000"})
+        public int traceSize;
+        @Param({"3", "10", "100"})
+        public int patternSize;
+        public final int patternNum = 3;
+        public final int ropePieceSize = 8;
+        private final Random rand = new Random(seed);
+        public String trace;
+        public ArrayRope traceRope;
+        public String pattern;
+        public char[] traceChars;
+        public char[] patternChars;
+        public byte[] traceBytes;
+        public byte[] patternBytes;
+        @Setup
+        public void setup() {
+            pattern = makeAsciiString(patternSize, rand);
+            int non_pattern_length_per_part = (traceSize - patternNum * patternSize) / patternNum;
+            StringBuilder traceBuilder = new StringBuilder();
+            for (int i = 0; i < patternNum; i++) {
+                traceBuilder.append(pattern);
+                traceBuilder.append(makeAsciiString(non_pattern_length_per_part, rand));
+            }
+            trace = traceBuilder.toString();
+            traceRope = new ArrayRope().setCoalesceThreshold(0);
+            for (int i = 0; i < trace.length(); i += ropePieceSize) {
+                traceRope.append(trace.substring(i, Math.min(i + ropePieceSize, trace.length())));
+            }
+            traceChars = trace.toCharArray();
+            patternChars = pattern.toCharArray();
+            traceBytes = trace.getBytes(StandardCharsets.ISO_8859_1);
+            patternBytes = pattern.getBytes(StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LargeMatchState {
+        public final long seed = 0;
+        @Param({"100000", "10000000"})
+        public int traceSize;
+        @Param({"3", "10", "100"})
+        public int patternSize;
+        private final Random rand = new Random(seed);
+        public String trace;
+        public String pattern;
+        public char[] traceChars;
+        public char[] patternChars;
+        public byte[] traceBytes;
+        public byte[] patternBytes;
+        public Searcher horspool;
+        public Searcher twoWay;
+        @Setup
+        public void setup() {
+//            the pattern occurs once per 10000 chars, so the scan between matches dominates
+//            printable ASCII, so traceBytes holds the same text as trace and traceChars
+            pattern = makeAsciiString(patternSize, rand);
+            StringBuilder traceBuilder = new StringBuilder(traceSize);
+            while (traceBuilder.length() < traceSize) {
+                traceBuilder.append(makeAsciiString(10000 - patternSize, rand));
+                traceBuilder.append(pattern);
+            }
+            trace = traceBuilder.substring(0, traceSize);
+            traceChars = trace.toCharArray();
+            patternChars = pattern.toCharArray();
+            traceBytes = trace.getBytes(StandardCharsets.ISO_8859_1);
+            patternBytes = pattern.getBytes(StandardCharsets.ISO_8859_1);
+            horspool = new HorspoolSearcher(pattern);
+            twoWay = new TwoWaySearcher(pattern);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MultiMatchState {
+        public final long seed = 0;
+        @Param({"1", "10", "100", "1000"})
+        public int patternCount;
+        @Param({"10000", "1000000"})
+        public int traceSize;
+        public final int patternSize = 10;
+        private final Random rand = new Random(seed);
+        public String trace;
+        public ArrayRope traceRope;
+        public String[] patterns;
+        public Pattern alternation;
+        public AhoCorasick automaton;
+        @Setup
+        public void setup() {
+            patterns = new String[patternCount];
+            StringJoiner alternationJoiner = new StringJoiner("|");
+            for (int i = 0; i < patternCount; i++) {
+                patterns[i] = makeRandomString(patternSize, rand);
+                alternationJoiner.add(Pattern.quote(patterns[i]));
+            }
+//            one occurrence of a random pattern every 100 chars
+            StringBuilder traceBuilder = new StringBuilder();
+            while (traceBuilder.length() < traceSize) {
+                traceBuilder.append(patterns[rand.nextInt(patternCount)]);
+                traceBuilder.append(makeRandomString(100 - patternSize, rand));
+            }
+            trace = traceBuilder.substring(0, traceSize);
+            traceRope = new ArrayRope().setCoalesceThreshold(0);
+            for (int i = 0; i < trace.length(); i += 100) {
+                traceRope.append(trace.substring(i, Math.min(i + 100, trace.length())));
+            }
+            alternation = Pattern.compile(alternationJoiner.toString());
+            automaton = new AhoCorasick(patterns);
         }
     }
 
@@ -51,6 +187,14 @@ public class Match {
         }
     }
 
+    public static void allIndexOf(ArrayRope trace, String pattern, Blackhole bh) {
+        int lastIndex = 0;
+        while (lastIndex >= 0) {
+            lastIndex = trace.indexOf(pattern, lastIndex + 1);
+            bh.consume(lastIndex);
+        }
+    }
+
     @Benchmark
     public void indexOf(MatchState state, Blackhole bh) {
         for (int i = 0; i < state.iter; i++) {
@@ -58,8 +202,11 @@ public class Match {
         }
     }
 
-    public static void allRegexFind(String trace, String pattern, Blackhole bh) {
-        Pattern compiledPattern = Pattern.compile(pattern);
+    public static void allRegexFind(CharSequence trace, String pattern, Blackhole bh) {
+        allRegexFind(trace, Pattern.compile(pattern), bh);
+    }
+
+    public static void allRegexFind(CharSequence trace, Pattern compiledPattern, Blackhole bh) {
         Matcher matcher = compiledPattern.matcher(trace);
         while (matcher.find()) {
             int index = matcher.start();
@@ -75,17 +222,82 @@ public class Match {
         }
     }
 
+    @Benchmark
+    public void regexFindArrayRope(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexFind(state.traceRope, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void regexFindArrayRopeView(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexFind(state.traceRope.regexView(), state.pattern, bh);
+        }
+    }
+
+    public static void allRegexSplit(CharSequence trace, String pattern, Blackhole bh) {
+        allRegexSplit(trace, Pattern.compile(pattern), bh);
+    }
+
+    public static void allRegexSplit(CharSequence trace, Pattern compiledPattern, Blackhole bh) {
+        String[] parts = compiledPattern.split(trace, -1);
+        int lastIndex = 0;
+        for (String part: parts) {
+            lastIndex += part.length();
+            bh.consume(lastIndex);
+            lastIndex += compiledPattern.pattern().length();
+        }
+    }
+
+    @Benchmark
+    public void regexFindCached(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexFind(state.trace, PatternCache.shared().get(state.pattern), bh);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void regexFindCachedContended(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexFind(state.trace, PatternCache.shared().get(state.pattern), bh);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void regexFindContended(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexFind(state.trace, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void regexSplitCached(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexSplit(state.trace, PatternCache.shared().get(state.pattern), bh);
+        }
+    }
+
     @Benchmark
     public void regexSplit(MatchState state, Blackhole bh) {
         for (int i = 0; i < state.iter; i++) {
-            Pattern compiledPattern = Pattern.compile(state.pattern);
-            String[] parts = compiledPattern.split(state.trace, -1);
-            int lastIndex = 0;
-            for (String part: parts) {
-                lastIndex += part.length();
-                bh.consume(lastIndex);
-                lastIndex += state.pattern.length();
-            }
+            allRegexSplit(state.trace, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void regexSplitArrayRope(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexSplit(state.traceRope, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void regexSplitArrayRopeView(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allRegexSplit(state.traceRope.regexView(), state.pattern, bh);
         }
     }
 
@@ -127,6 +339,49 @@ public class Match {
         }
     }
 
+    public static void allSearcherIndexOf(CharSequence trace, Searcher searcher, Blackhole bh) {
+        int lastIndex = 0;
+        while (lastIndex >= 0) {
+            lastIndex = searcher.indexOf(trace, lastIndex + 1);
+            bh.consume(lastIndex);
+        }
+    }
+
+    @Benchmark
+    public void searcherIndexOf(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allSearcherIndexOf(state.trace, state.searcher, bh);
+        }
+    }
+
+    @Benchmark
+    public void searcherIndexOfCompiled(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allSearcherIndexOf(state.trace, Searcher.of(state.pattern), bh);
+        }
+    }
+
+    @Benchmark
+    public void horspoolIndexOf(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allSearcherIndexOf(state.trace, state.horspool, bh);
+        }
+    }
+
+    @Benchmark
+    public void twoWayIndexOf(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allSearcherIndexOf(state.trace, state.twoWay, bh);
+        }
+    }
+
+    @Benchmark
+    public void horspoolIndexOfArrayRope(MatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allSearcherIndexOf(state.traceRope, state.horspool, bh);
+        }
+    }
+
     @Benchmark
     public void slidingCharAt(MatchState state, Blackhole bh) {
         for (int i = 0; i < state.iter; i++) {
@@ -156,4 +411,117 @@ public class Match {
         }
     }
 
-}
\ No newline at end of file
+    @Benchmark
+    public void multiIndexOf(MultiMatchState state, Blackhole bh) {
+        for (String pattern : state.patterns) {
+            int index = state.trace.indexOf(pattern);
+            while (index >= 0) {
+                bh.consume(index);
+                index = state.trace.indexOf(pattern, index + 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public void multiRegexAlternation(MultiMatchState state, Blackhole bh) {
+        Matcher matcher = state.alternation.matcher(state.trace);
+        while (matcher.find()) {
+            bh.consume(matcher.start());
+        }
+    }
+
+    @Benchmark
+    public void multiAhoCorasick(MultiMatchState state, Blackhole bh) {
+        state.automaton.scan(state.trace, (patternId, offset) -> bh.consume(offset));
+    }
+
+    @Benchmark
+    public void multiAhoCorasickArrayRope(MultiMatchState state, Blackhole bh) {
+        state.automaton.scan(state.traceRope, (patternId, offset) -> bh.consume(offset));
+    }
+
+    public static void allVectorIndexOf(CharSequence trace, String pattern, Blackhole bh) {
+        int lastIndex = 0;
+        while (lastIndex >= 0) {
+            lastIndex = VectorSearch.indexOf(trace, pattern, lastIndex + 1);
+            bh.consume(lastIndex);
+        }
+    }
+
+    public static void allVectorIndexOf(char[] trace, char[] pattern, Blackhole bh) {
+        int lastIndex = 0;
+        while (lastIndex >= 0) {
+            lastIndex = VectorSearch.indexOf(trace, lastIndex + 1, trace.length, pattern);
+            bh.consume(lastIndex);
+        }
+    }
+
+    public static void allVectorIndexOf(byte[] trace, byte[] pattern, Blackhole bh) {
+        int lastIndex = 0;
+        while (lastIndex >= 0) {
+            lastIndex = VectorSearch.indexOf(trace, lastIndex + 1, trace.length, pattern);
+            bh.consume(lastIndex);
+        }
+    }
+
+    @Benchmark
+    public void asciiIndexOf(AsciiMatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allIndexOf(state.trace, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void vectorIndexOf(AsciiMatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allVectorIndexOf(state.trace, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void vectorIndexOfChars(AsciiMatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allVectorIndexOf(state.traceChars, state.patternChars, bh);
+        }
+    }
+
+    @Benchmark
+    public void vectorIndexOfBytes(AsciiMatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allVectorIndexOf(state.traceBytes, state.patternBytes, bh);
+        }
+    }
+
+    @Benchmark
+    public void vectorIndexOfArrayRope(AsciiMatchState state, Blackhole bh) {
+        for (int i = 0; i < state.iter; i++) {
+            allVectorIndexOf(state.traceRope, state.pattern, bh);
+        }
+    }
+
+    @Benchmark
+    public void largeIndexOf(LargeMatchState state, Blackhole bh) {
+        allIndexOf(state.trace, state.pattern, bh);
+    }
+
+    @Benchmark
+    public void largeVectorIndexOfChars(LargeMatchState state, Blackhole bh) {
+        allVectorIndexOf(state.traceChars, state.patternChars, bh);
+    }
+
+    @Benchmark
+    public void largeVectorIndexOfBytes(LargeMatchState state, Blackhole bh) {
+        allVectorIndexOf(state.traceBytes, state.patternBytes, bh);
+    }
+
+    @Benchmark
+    public void largeHorspoolIndexOf(LargeMatchState state, Blackhole bh) {
+        allSearcherIndexOf(state.trace, state.horspool, bh);
+    }
+
+    @Benchmark
+    public void largeTwoWayIndexOf(LargeMatchState state, Blackhole bh) {
+        allSearcherIndexOf(state.trace, state.twoWay, bh);
+    }
+
+}
@@ -0,0 +1,102 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import CustomString.PieceTableRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeRandomString;
+
+// run with -prof gc, gc.alloc.rate.norm of the build benchmarks is the footprint of one rope
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class PieceTable {
+    @State(Scope.Thread)
+    public static class PieceTableState {
+        public final long seed = 0;
+        @Param({"10000", "100000", "1000000"})
+        public int pieceNum;
+        public final int pieceSize = 5;
+        public final int accessNum = 1000;
+        public final int subSize = 100;
+        private final Random rand = new Random(seed);
+        public String[] parts;
+        public ArrayRope arrayRope;
+        public PieceTableRope pieceTableRope;
+        public int[] randomIndices;
+        @Setup
+        public void setup() {
+            parts = new String[pieceNum];
+            for (int i = 0; i < pieceNum; i++) {
+                parts[i] = makeRandomString(pieceSize, rand);
+            }
+            arrayRope = new ArrayRope().setCoalesceThreshold(0);
+            pieceTableRope = new PieceTableRope();
+            for (String part : parts) {
+                arrayRope.append(part);
+                pieceTableRope.append(part);
+            }
+            randomIndices = new int[accessNum];
+            for (int i = 0; i < accessNum; i++) {
+                randomIndices[i] = rand.nextInt(pieceNum * pieceSize - subSize);
+            }
+        }
+    }
+
+    @Benchmark
+    public void arrayRopeBuild(PieceTableState state, Blackhole bh) {
+        ArrayRope rope = new ArrayRope().setCoalesceThreshold(0);
+        for (String part : state.parts) {
+            rope.append(part);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void pieceTableRopeBuild(PieceTableState state, Blackhole bh) {
+        PieceTableRope rope = new PieceTableRope();
+        for (String part : state.parts) {
+            rope.append(part);
+        }
+        bh.consume(rope);
+    }
+
+    @Benchmark
+    public void arrayRopeRandomCharAt(PieceTableState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.randomIndices) {
+            sum += state.arrayRope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void pieceTableRopeRandomCharAt(PieceTableState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.randomIndices) {
+            sum += state.pieceTableRope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayRopeSubSequence(PieceTableState state, Blackhole bh) {
+        for (int index : state.randomIndices) {
+            bh.consume(state.arrayRope.subSequence(index, index + state.subSize));
+        }
+    }
+
+    @Benchmark
+    public void pieceTableRopeSubSequence(PieceTableState state, Blackhole bh) {
+        for (int index : state.randomIndices) {
+            bh.consume(state.pieceTableRope.subSequence(index, index + state.subSize));
+        }
+    }
+}
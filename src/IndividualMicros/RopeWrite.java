@@ -0,0 +1,78 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// run with -prof gc, writeTo should allocate a few KiB per rope where toString allocates the whole rope twice
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+
+public class RopeWrite {
+    @State(Scope.Thread)
+    public static class RopeWriteState {
+        public final long seed = 0;
+        @Param({"1048576", "67108864"})
+        public int ropeSize;
+//        with coalescing at 16 chars, 8-char pieces go into compact chunks and 100-char pieces stay String pieces
+        @Param({"8", "100"})
+        public int pieceSize;
+        @Param({"ISO-8859-1", "UTF-8"})
+        public String charsetName;
+        private final Random rand = new Random(seed);
+        public ArrayRope rope;
+        public Charset charset;
+        public Path path;
+        @Setup
+        public void setup() throws IOException {
+            charset = Charset.forName(charsetName);
+            path = Files.createTempFile("string-benchmark", ".txt");
+            rope = new ArrayRope().setCoalesceThreshold(16);
+            char[] chars = new char[pieceSize];
+            for (int written = 0; written < ropeSize; written += pieceSize) {
+                for (int i = 0; i < pieceSize; i++) {
+                    chars[i] = (char) (32 + rand.nextInt(95));
+                }
+                rope.append(new String(chars));
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public void writeStringToString(RopeWriteState state, Blackhole bh) throws IOException {
+        bh.consume(Files.writeString(state.path, state.rope.toString(), state.charset));
+    }
+
+    @Benchmark
+    public void writeToWriter(RopeWriteState state, Blackhole bh) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(state.path, state.charset)) {
+            state.rope.writeTo(writer);
+        }
+        bh.consume(state.path);
+    }
+
+    @Benchmark
+    public void writeToChannel(RopeWriteState state, Blackhole bh) throws IOException {
+        try (FileChannel channel = FileChannel.open(state.path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            bh.consume(state.rope.writeTo(channel, state.charset));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeRandomString;
+
+// run with -prof gc for allocation, the retained/live counters show how much content the slices keep alive
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class SliceRetention {
+    @State(Scope.Thread)
+    public static class SliceRetentionState {
+        public final long seed = 0;
+        @Param({"1000", "1000000"})
+        public int contentSize;
+        @Param({"5", "100", "10000"})
+        public int sliceSize;
+        public final int contentNum = 4;
+        public final int sliceNum = 100;
+        private final Random rand = new Random(seed);
+        public ArrayRope source;
+        public int[] sliceStarts;
+        @Setup
+        public void setup() {
+            String[] contents = new String[contentNum];
+            for (int i = 0; i < contentNum; i++) {
+                contents[i] = makeRandomString(contentSize, rand);
+            }
+            source = new ArrayRope(contents);
+            sliceStarts = new int[sliceNum];
+            int max_start = Math.max(source.length() - sliceSize, 1);
+            for (int i = 0; i < sliceNum; i++) {
+                sliceStarts[i] = rand.nextInt(max_start);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedCounters {
+        public long liveChars;
+        public long retainedChars;
+    }
+
+    public static void slices(SliceRetentionState state, int copyThreshold, double copyRatio, RetainedCounters counters, Blackhole bh) {
+        state.source.setSliceRetentionPolicy(copyThreshold, copyRatio);
+        ArrayRope cache = new ArrayRope().setCoalesceThreshold(0);
+        for (int start : state.sliceStarts) {
+            CharSequence slice = state.source.subSequence(start, Math.min(start + state.sliceSize, state.source.length()));
+            cache.append(slice);
+        }
+        counters.liveChars += cache.length();
+        counters.retainedChars += cache.retainedChars();
+        bh.consume(cache);
+    }
+
+    @Benchmark
+    public void shareAll(SliceRetentionState state, RetainedCounters counters, Blackhole bh) {
+        slices(state, 0, 0, counters, bh);
+    }
+
+    @Benchmark
+    public void copyBelowSize(SliceRetentionState state, RetainedCounters counters, Blackhole bh) {
+        slices(state, 64, 0, counters, bh);
+    }
+
+    @Benchmark
+    public void copyBelowRatio(SliceRetentionState state, RetainedCounters counters, Blackhole bh) {
+        slices(state, 0, 0.1, counters, bh);
+    }
+
+    @Benchmark
+    public void copyAll(SliceRetentionState state, RetainedCounters counters, Blackhole bh) {
+        slices(state, Integer.MAX_VALUE, 1, counters, bh);
+    }
+}
@@ -0,0 +1,105 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import CustomString.StreamingRopeBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+
+public class StreamIngest {
+    @State(Scope.Benchmark)
+    public static class StreamIngestState {
+        public final long seed = 0;
+        @Param({"1048576", "67108864", "268435456"})
+        public int fileSize;
+        @Param({"ISO-8859-1", "UTF-8"})
+        public String charsetName;
+        public final int lineSize = 120;
+        private final Random rand = new Random(seed);
+        public Path path;
+        public Charset charset;
+        @Setup
+        public void setup() throws IOException {
+            path = Files.createTempFile("string-benchmark", ".log");
+            charset = Charset.forName(charsetName);
+//            printable ASCII log lines, the same bytes under both charsets
+            byte[] line = new byte[lineSize];
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                int written = 0;
+                while (written < fileSize) {
+                    for (int i = 0; i < lineSize - 1; i++) {
+                        line[i] = (byte) (32 + rand.nextInt(95));
+                    }
+                    line[lineSize - 1] = '\n';
+                    int size = Math.min(lineSize, fileSize - written);
+                    out.write(line, 0, size);
+                    written += size;
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    public void readStringArrayRope(StreamIngestState state, Blackhole bh) throws IOException {
+        bh.consume(new ArrayRope(Files.readString(state.path, state.charset)));
+    }
+
+    @Benchmark
+    public void streamReader(StreamIngestState state, Blackhole bh) throws IOException {
+        StreamingRopeBuilder builder = new StreamingRopeBuilder();
+        try (Reader reader = Files.newBufferedReader(state.path, state.charset)) {
+            builder.read(reader);
+        }
+        bh.consume(builder.build());
+    }
+
+    @Benchmark
+    public void streamInputStream(StreamIngestState state, Blackhole bh) throws IOException {
+        StreamingRopeBuilder builder = new StreamingRopeBuilder();
+        try (InputStream in = Files.newInputStream(state.path)) {
+            builder.read(in, state.charset);
+        }
+        bh.consume(builder.build());
+    }
+
+    @Benchmark
+    public void streamChannel(StreamIngestState state, Blackhole bh) throws IOException {
+        StreamingRopeBuilder builder = new StreamingRopeBuilder();
+        try (FileChannel channel = FileChannel.open(state.path)) {
+            builder.read(channel, state.charset);
+        }
+        bh.consume(builder.build());
+    }
+
+    @Benchmark
+    public void streamChannelToString(StreamIngestState state, Blackhole bh) throws IOException {
+        StreamingRopeBuilder builder = new StreamingRopeBuilder();
+        try (FileChannel channel = FileChannel.open(state.path)) {
+            builder.read(channel, state.charset);
+        }
+        bh.consume(builder.build().toString());
+    }
+}
@@ -0,0 +1,98 @@
+package IndividualMicros;
+
+import CustomString.ArrayRope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static utils.Utils.makeRandomString;
+
+@Fork(value = 1)
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 2, time = 5, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+
+public class Traverse {
+    @State(Scope.Thread)
+    public static class TraverseState {
+        public final long seed = 0;
+        @Param({"100", "10000", "50000"})
+        public int pieceNum;
+        @Param({"5", "100"})
+        public int pieceSize;
+        private final Random rand = new Random(seed);
+        public String trace;
+        public ArrayRope rope;
+        public int[] randomIndices;
+        @Setup
+        public void setup() {
+            rope = new ArrayRope();
+            StringBuilder traceBuilder = new StringBuilder();
+            for (int i = 0; i < pieceNum; i++) {
+                String piece = makeRandomString(pieceSize, rand);
+                rope.append(piece);
+                traceBuilder.append(piece);
+            }
+            trace = traceBuilder.toString();
+            randomIndices = new int[trace.length()];
+            for (int i = 0; i < randomIndices.length; i++) {
+                randomIndices[i] = rand.nextInt(trace.length());
+            }
+        }
+    }
+
+    @Benchmark
+    public void stringCharAt(TraverseState state, Blackhole bh) {
+        int sum = 0;
+        for (int i = 0; i < state.trace.length(); i++) {
+            sum += state.trace.charAt(i);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void stringChars(TraverseState state, Blackhole bh) {
+        bh.consume(state.trace.chars().sum());
+    }
+
+    @Benchmark
+    public void arrayRopeCharAt(TraverseState state, Blackhole bh) {
+        int sum = 0;
+        for (int i = 0; i < state.rope.length(); i++) {
+            sum += state.rope.charAt(i);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayRopeRandomCharAt(TraverseState state, Blackhole bh) {
+        int sum = 0;
+        for (int index : state.randomIndices) {
+            sum += state.rope.charAt(index);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayRopeCursor(TraverseState state, Blackhole bh) {
+        int sum = 0;
+        ArrayRope.Cursor cursor = state.rope.cursor();
+        while (cursor.hasNext()) {
+            sum += cursor.nextChar();
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void arrayRopeChars(TraverseState state, Blackhole bh) {
+        bh.consume(state.rope.chars().sum());
+    }
+
+    @Benchmark
+    public void arrayRopeCodePoints(TraverseState state, Blackhole bh) {
+        bh.consume(state.rope.codePoints().sum());
+    }
+}
@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Index answering startsWith (or endsWith) queries over a fixed {@code String[]} corpus without scanning it.
+ * The corpus ids are kept sorted by their strings (read back to front for a suffix index), so all strings
+ * sharing a prefix form one contiguous range that two binary searches find.
+ * The searches remember how many chars the range bounds already share with the query and start comparing there,
+ * so a query reads about |query| + log n chars in practice instead of |query| * log n.
+ * The index itself costs one int per string on top of the corpus it references.
+ */
+public final class AffixIndex {
+    private final String[] corpus;
+    private final int[] order;
+    private final boolean suffixes;
+
+    private AffixIndex(String[] corpus, boolean suffixes) {
+        this.corpus = corpus;
+        this.suffixes = suffixes;
+        Integer[] sorted_ids = new Integer[corpus.length];
+        for (int i = 0; i < corpus.length; i++) {
+            sorted_ids[i] = i;
+        }
+        Arrays.sort(sorted_ids, (x, y) -> compareKeys(corpus[x], corpus[y]));
+        order = new int[corpus.length];
+        for (int i = 0; i < corpus.length; i++) {
+            order[i] = sorted_ids[i];
+        }
+    }
+
+    /**
+     * Index for startsWith queries. The corpus is referenced, not copied, and must not change afterwards.
+     */
+    public static AffixIndex ofPrefixes(String[] corpus) {
+        return new AffixIndex(corpus, false);
+    }
+
+    /**
+     * Index for endsWith queries. The corpus is referenced, not copied, and must not change afterwards.
+     */
+    public static AffixIndex ofSuffixes(String[] corpus) {
+        return new AffixIndex(corpus, true);
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    private char keyChar(CharSequence key, int i) {
+        return suffixes ? key.charAt(key.length() - 1 - i) : key.charAt(i);
+    }
+
+    private int compareKeys(String x, String y) {
+        if (!suffixes) {
+            return x.compareTo(y);
+        }
+        int limit = Math.min(x.length(), y.length());
+        for (int i = 0; i < limit; i++) {
+            char x_char = keyChar(x, i);
+            char y_char = keyChar(y, i);
+            if (x_char != y_char) {
+                return x_char - y_char;
+            }
+        }
+        return x.length() - y.length();
+    }
+
+    private int matchLength(String key, CharSequence query, int start) {
+        int limit = Math.min(key.length(), query.length());
+        int i = start;
+        while (i < limit && keyChar(key, i) == keyChar(query, i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * First position in the sorted order whose string does not sort before the query,
+     * or with {@code afterMatches} whose string neither sorts before nor starts (ends) with it.
+     */
+    private int bound(CharSequence query, boolean afterMatches) {
+        int low = -1;
+        int high = order.length;
+        int low_match = 0;
+        int high_match = 0;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            String key = corpus[order[mid]];
+//            every string between low and high shares at least min(low_match, high_match) chars with the query
+            int match = matchLength(key, query, Math.min(low_match, high_match));
+            boolean before = match < query.length()
+                    && (match == key.length() || keyChar(key, match) < keyChar(query, match));
+            if (before || (afterMatches && match == query.length())) {
+                low = mid;
+                low_match = match;
+            } else {
+                high = mid;
+                high_match = match;
+            }
+        }
+        return high;
+    }
+
+    public int count(CharSequence query) {
+        return bound(query, true) - bound(query, false);
+    }
+
+    /**
+     * Ids of all corpus strings starting (ending) with {@code query}, in the order of the index.
+     */
+    public int[] ids(CharSequence query) {
+        return Arrays.copyOfRange(order, bound(query, false), bound(query, true));
+    }
+}
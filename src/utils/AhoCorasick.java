@@ -0,0 +1,188 @@
+package utils;
+
+import CustomString.ArrayRope;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton that finds every occurrence of a fixed set of patterns in one pass.
+ * The automaton is built once and is immutable afterwards, so one instance can be shared by any number of threads.
+ * Matches are pushed to a {@link MatchListener} as (patternId, offset) pairs without allocating per match.
+ */
+public final class AhoCorasick {
+    public interface MatchListener {
+        void onMatch(int patternId, int offset);
+    }
+
+    private static final int ROOT = 0;
+    private static final int DENSE_ROOT_SIZE = 256;
+
+//    trie edges in compressed sparse row form, edges of node n are [edgeStart[n], edgeStart[n + 1])
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+//    root transitions for Latin-1 chars, 0 (the root itself) when there is no edge
+    private final int[] rootNext;
+    private final int[] fail;
+//    first pattern ending at a node, further patterns with the same text follow samePattern
+    private final int[] nodePattern;
+    private final int[] samePattern;
+//    nearest node on the failure chain that ends a pattern, -1 if none
+    private final int[] outputLink;
+    private final int[] patternLengths;
+
+    public AhoCorasick(CharSequence... patterns) {
+        this(Arrays.asList(patterns));
+    }
+
+    public AhoCorasick(List<? extends CharSequence> patterns) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        List<Integer> node_patterns = new ArrayList<>();
+        node_patterns.add(-1);
+        patternLengths = new int[patterns.size()];
+        samePattern = new int[patterns.size()];
+        Arrays.fill(samePattern, -1);
+        for (int id = 0; id < patterns.size(); id++) {
+            CharSequence pattern = patterns.get(id);
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("pattern " + id + " is empty");
+            }
+            patternLengths[id] = pattern.length();
+            int node = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = trie.get(node).get(pattern.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(node).put(pattern.charAt(i), next);
+                    trie.add(new TreeMap<>());
+                    node_patterns.add(-1);
+                }
+                node = next;
+            }
+            samePattern[id] = node_patterns.get(node);
+            node_patterns.set(node, id);
+        }
+
+        int node_num = trie.size();
+        edgeStart = new int[node_num + 1];
+        for (int node = 0; node < node_num; node++) {
+            edgeStart[node + 1] = edgeStart[node] + trie.get(node).size();
+        }
+        edgeChars = new char[edgeStart[node_num]];
+        edgeTargets = new int[edgeStart[node_num]];
+        for (int node = 0; node < node_num; node++) {
+            int edge = edgeStart[node];
+            for (var entry : trie.get(node).entrySet()) {
+                edgeChars[edge] = entry.getKey();
+                edgeTargets[edge++] = entry.getValue();
+            }
+        }
+        nodePattern = new int[node_num];
+        for (int node = 0; node < node_num; node++) {
+            nodePattern[node] = node_patterns.get(node);
+        }
+        rootNext = new int[DENSE_ROOT_SIZE];
+        for (int edge = edgeStart[ROOT]; edge < edgeStart[ROOT + 1]; edge++) {
+            if (edgeChars[edge] < DENSE_ROOT_SIZE) {
+                rootNext[edgeChars[edge]] = edgeTargets[edge];
+            }
+        }
+
+//        breadth-first over the trie, a node's failure target is always shallower than the node
+        fail = new int[node_num];
+        outputLink = new int[node_num];
+        outputLink[ROOT] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int edge = edgeStart[ROOT]; edge < edgeStart[ROOT + 1]; edge++) {
+            fail[edgeTargets[edge]] = ROOT;
+            outputLink[edgeTargets[edge]] = -1;
+            queue.add(edgeTargets[edge]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int child = edgeTargets[edge];
+                int target = step(fail[node], edgeChars[edge]);
+                fail[child] = target;
+                outputLink[child] = nodePattern[target] >= 0 ? target : outputLink[target];
+                queue.add(child);
+            }
+        }
+    }
+
+    public int patternCount() {
+        return patternLengths.length;
+    }
+
+    private int edge(int node, char c) {
+        if (node == ROOT && c < DENSE_ROOT_SIZE) {
+            return rootNext[c];
+        }
+        int low = edgeStart[node];
+        int high = edgeStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char mid_char = edgeChars[mid];
+            if (mid_char < c) {
+                low = mid + 1;
+            } else if (mid_char > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return node == ROOT ? ROOT : -1;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int next = edge(node, c);
+            if (next >= 0) {
+                return next;
+            }
+            node = fail[node];
+        }
+    }
+
+    private void report(int node, int end, MatchListener listener) {
+        if (nodePattern[node] < 0) {
+            node = outputLink[node];
+        }
+        while (node >= 0) {
+            for (int id = nodePattern[node]; id >= 0; id = samePattern[id]) {
+                listener.onMatch(id, end - patternLengths[id] + 1);
+            }
+            node = outputLink[node];
+        }
+    }
+
+    /**
+     * Reports every occurrence of every pattern in {@code text}, overlapping ones included,
+     * in order of their end offset.
+     */
+    public void scan(CharSequence text, MatchListener listener) {
+        int node = ROOT;
+        if (text instanceof ArrayRope rope) {
+//            walk the rope piece by piece instead of searching the piece of every char
+            ArrayRope.Cursor cursor = rope.cursor();
+            for (int i = 0; cursor.hasNext(); i++) {
+                node = step(node, cursor.nextChar());
+                if (nodePattern[node] >= 0 || outputLink[node] >= 0) {
+                    report(node, i, listener);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            if (nodePattern[node] >= 0 || outputLink[node] >= 0) {
+                report(node, i, listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch of startsWith / endsWith / contains queries evaluated together in one pass over a {@code String[]} corpus.
+ * Queries are grouped by kind and by the char they have to start at (the last char for endsWith),
+ * so each string is read once while hot in cache and only tested against the queries its chars can match.
+ * The corpus is split into 64-string aligned ranges processed by fork-join tasks, a range owns whole words
+ * of the result bitsets and tasks never write to the same word.
+ */
+public final class BatchQuery {
+    public enum Kind {
+        STARTS_WITH, ENDS_WITH, CONTAINS
+    }
+
+//    strings per task, a multiple of 64 so task ranges cover whole bitset words
+    private static final int TASK_SIZE = 64 * 64;
+
+    private final List<Kind> kinds = new ArrayList<>();
+    private final List<String> patterns = new ArrayList<>();
+
+    public int add(Kind kind, String pattern) {
+        kinds.add(kind);
+        patterns.add(pattern);
+        return patterns.size() - 1;
+    }
+
+    public int startsWith(String prefix) {
+        return add(Kind.STARTS_WITH, prefix);
+    }
+
+    public int endsWith(String suffix) {
+        return add(Kind.ENDS_WITH, suffix);
+    }
+
+    public int contains(String sub) {
+        return add(Kind.CONTAINS, sub);
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Queries of one kind keyed by the char they are anchored at, sorted for binary search.
+     */
+    private static final class Groups {
+        final char[] keys;
+        final int[][] queries;
+
+        Groups(Map<Character, List<Integer>> grouped) {
+            keys = new char[grouped.size()];
+            queries = new int[grouped.size()][];
+            int i = 0;
+            for (var entry : grouped.entrySet()) {
+                keys[i] = entry.getKey();
+                queries[i++] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        int[] get(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? queries[i] : null;
+        }
+    }
+
+    public static final class Result {
+        private final long[][] bits;
+        private final int corpusSize;
+
+        private Result(int queryNum, int corpusSize) {
+            this.bits = new long[queryNum][(corpusSize + 63) >>> 6];
+            this.corpusSize = corpusSize;
+        }
+
+        public boolean matches(int query, int id) {
+            return (bits[query][id >>> 6] & (1L << id)) != 0;
+        }
+
+        public int count(int query) {
+            int count = 0;
+            for (long word : bits[query]) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        public int[] ids(int query) {
+            int[] ids = new int[count(query)];
+            int i = 0;
+            long[] words = bits[query];
+            for (int word_index = 0; word_index < words.length; word_index++) {
+                for (long word = words[word_index]; word != 0; word &= word - 1) {
+                    ids[i++] = (word_index << 6) + Long.numberOfTrailingZeros(word);
+                }
+            }
+            return ids;
+        }
+
+        /**
+         * Bitset of the matching ids of {@code query}, one bit per corpus string, not copied.
+         */
+        public long[] bits(int query) {
+            return bits[query];
+        }
+
+        public int corpusSize() {
+            return corpusSize;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ScanTask extends RecursiveAction {
+        private final String[] corpus;
+        private final String[] patternArray;
+        private final Groups starts;
+        private final Groups ends;
+        private final Groups containing;
+        private final int[] matchAll;
+        private final Result result;
+        private final int from;
+        private final int to;
+
+        ScanTask(String[] corpus, String[] patternArray, Groups starts, Groups ends, Groups containing,
+                 int[] matchAll, Result result, int from, int to) {
+            this.corpus = corpus;
+            this.patternArray = patternArray;
+            this.starts = starts;
+            this.ends = ends;
+            this.containing = containing;
+            this.matchAll = matchAll;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TASK_SIZE) {
+//                split on a multiple of TASK_SIZE so both halves stay word aligned
+                int mid = from + Math.max((to - from) / TASK_SIZE / 2, 1) * TASK_SIZE;
+                invokeAll(new ScanTask(corpus, patternArray, starts, ends, containing, matchAll, result, from, mid),
+                        new ScanTask(corpus, patternArray, starts, ends, containing, matchAll, result, mid, to));
+                return;
+            }
+            long[][] bits = result.bits;
+            for (int id = from; id < to; id++) {
+                String s = corpus[id];
+                int word = id >>> 6;
+                long bit = 1L << id;
+                for (int query : matchAll) {
+                    bits[query][word] |= bit;
+                }
+                if (s.isEmpty()) {
+                    continue;
+                }
+                int[] group = starts.get(s.charAt(0));
+                if (group != null) {
+                    for (int query : group) {
+                        if (s.startsWith(patternArray[query])) {
+                            bits[query][word] |= bit;
+                        }
+                    }
+                }
+                group = ends.get(s.charAt(s.length() - 1));
+                if (group != null) {
+                    for (int query : group) {
+                        if (s.endsWith(patternArray[query])) {
+                            bits[query][word] |= bit;
+                        }
+                    }
+                }
+                if (containing.keys.length == 0) {
+                    continue;
+                }
+                for (int i = 0; i < s.length(); i++) {
+                    group = containing.get(s.charAt(i));
+                    if (group == null) {
+                        continue;
+                    }
+                    for (int query : group) {
+                        if ((bits[query][word] & bit) == 0 && s.startsWith(patternArray[query], i)) {
+                            bits[query][word] |= bit;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public Result run(String[] corpus) {
+        return run(corpus, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Evaluates every query against {@code corpus} with the tasks running in {@code pool}.
+     */
+    public Result run(String[] corpus, ForkJoinPool pool) {
+        Map<Character, List<Integer>> starts = new TreeMap<>();
+        Map<Character, List<Integer>> ends = new TreeMap<>();
+        Map<Character, List<Integer>> containing = new TreeMap<>();
+        List<Integer> match_all = new ArrayList<>();
+        for (int query = 0; query < patterns.size(); query++) {
+            String pattern = patterns.get(query);
+            if (pattern.isEmpty()) {
+                match_all.add(query);
+                continue;
+            }
+            switch (kinds.get(query)) {
+                case STARTS_WITH -> starts.computeIfAbsent(pattern.charAt(0), c -> new ArrayList<>()).add(query);
+                case ENDS_WITH -> ends.computeIfAbsent(pattern.charAt(pattern.length() - 1), c -> new ArrayList<>()).add(query);
+                case CONTAINS -> containing.computeIfAbsent(pattern.charAt(0), c -> new ArrayList<>()).add(query);
+            }
+        }
+        Result result = new Result(patterns.size(), corpus.length);
+        ScanTask task = new ScanTask(corpus, patterns.toArray(new String[0]), new Groups(starts), new Groups(ends),
+                new Groups(containing), match_all.stream().mapToInt(Integer::intValue).toArray(), result, 0, corpus.length);
+        if (corpus.length <= TASK_SIZE) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,266 @@
+package utils;
+
+import CustomString.ArrayRope;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IllegalFormatConversionException;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+
+/**
+ * A format string parsed once into literal segments and argument slots, so rendering does not re-parse it
+ * like {@link String#format} does on every call. Supports {@code %s}, {@code %d}, {@code %%} and {@code %n},
+ * without flags, width or explicit indices. Numbers are rendered as in {@link java.util.Locale#ROOT}, with ASCII digits
+ * and no grouping. {@code %s} uses {@link String#valueOf(Object)}, so Formattable arguments are not asked to format themselves.
+ * <p>
+ * {@link #format} measures the exact output length first and fills one buffer of that size, Latin-1 bytes
+ * while every char fits (literals are checked at compile time, arguments while copying) and UTF-16 chars after.
+ */
+public final class FormatTemplate {
+    private final String template;
+//    literals.length == conversions.length + 1, literal i comes before slot i, the last one after every slot
+    private final String[] literals;
+    private final byte[][] literalBytes;
+    private final char[] conversions;
+    private final int literalLength;
+    private final boolean literalsLatin1;
+
+    private FormatTemplate(String template, String[] literals, char[] conversions) {
+        this.template = template;
+        this.literals = literals;
+        this.conversions = conversions;
+        boolean latin1 = true;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+            for (int i = 0; i < literal.length() && latin1; i++) {
+                latin1 = literal.charAt(i) <= 0xFF;
+            }
+        }
+        this.literalLength = length;
+        this.literalsLatin1 = latin1;
+        this.literalBytes = new byte[literals.length][];
+        if (latin1) {
+            for (int i = 0; i < literals.length; i++) {
+                literalBytes[i] = literals[i].getBytes(StandardCharsets.ISO_8859_1);
+            }
+        }
+    }
+
+    public static FormatTemplate compile(String template) {
+        ArrayList<String> literals = new ArrayList<>();
+        StringBuilder conversions = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int length = template.length();
+        for (int i = 0; i < length; i++) {
+            char c = template.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i + 1 == length) {
+                throw new UnknownFormatConversionException("%");
+            }
+            char conversion = template.charAt(++i);
+            switch (conversion) {
+                case '%' -> literal.append('%');
+                case 'n' -> literal.append(System.lineSeparator());
+                case 's', 'd' -> {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    conversions.append(conversion);
+                }
+                default -> throw new UnknownFormatConversionException(String.valueOf(conversion));
+            }
+        }
+        literals.add(literal.toString());
+        return new FormatTemplate(template, literals.toArray(new String[0]), conversions.toString().toCharArray());
+    }
+
+    public int argumentCount() {
+        return conversions.length;
+    }
+
+    private static boolean isIntegral(Object arg) {
+        return arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte;
+    }
+
+    private void checkArguments(Object[] args) {
+        if (args.length < conversions.length) {
+            throw new MissingFormatArgumentException("%" + conversions[args.length]);
+        }
+    }
+
+    /**
+     * String form of a slot that is not rendered as digits, null for integral {@code %d} arguments.
+     */
+    private String argumentString(int slot, Object arg) {
+        if (conversions[slot] == 'd') {
+            if (isIntegral(arg)) {
+                return null;
+            }
+            if (arg != null && !(arg instanceof BigInteger)) {
+                throw new IllegalFormatConversionException('d', arg.getClass());
+            }
+        }
+        return String.valueOf(arg);
+    }
+
+    /**
+     * Chars taken by {@code value} in decimal, sign included.
+     */
+    static int digitCount(long value) {
+        int sign = 0;
+        if (value < 0) {
+            sign = 1;
+        } else {
+            value = -value;
+        }
+//        counted on the negative side so Long.MIN_VALUE needs no special case
+        long bound = -10;
+        for (int i = 1; i < 19; i++) {
+            if (value > bound) {
+                return i + sign;
+            }
+            bound *= 10;
+        }
+        return 19 + sign;
+    }
+
+    private static int putDigits(long value, byte[] dst, int pos) {
+        int end = pos + digitCount(value);
+        int i = end;
+        long remaining = value < 0 ? value : -value;
+        do {
+            dst[--i] = (byte) ('0' - (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            dst[--i] = '-';
+        }
+        return end;
+    }
+
+    private static int putDigits(long value, char[] dst, int pos) {
+        int end = pos + digitCount(value);
+        int i = end;
+        long remaining = value < 0 ? value : -value;
+        do {
+            dst[--i] = (char) ('0' - (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            dst[--i] = '-';
+        }
+        return end;
+    }
+
+    private static char[] inflate(byte[] bytes, int used) {
+        char[] chars = new char[bytes.length];
+        for (int i = 0; i < used; i++) {
+            chars[i] = (char) (bytes[i] & 0xFF);
+        }
+        return chars;
+    }
+
+    /**
+     * Same result as {@code String.format(Locale.ROOT, template, args)} for the supported conversions:
+     * {@code %d} is always written with ASCII digits and no grouping, whatever the default locale is.
+     */
+    public String format(Object... args) {
+        checkArguments(args);
+        int slot_num = conversions.length;
+//        only arguments that are not already Strings or integers need a converted copy
+        String[] converted = null;
+        int length = literalLength;
+        for (int i = 0; i < slot_num; i++) {
+            Object arg = args[i];
+            if (arg instanceof String str && conversions[i] == 's') {
+                length += str.length();
+                continue;
+            }
+            String str = argumentString(i, arg);
+            if (str == null) {
+                length += digitCount(((Number) arg).longValue());
+                continue;
+            }
+            if (converted == null) {
+                converted = new String[slot_num];
+            }
+            converted[i] = str;
+            length += str.length();
+        }
+
+        byte[] bytes = literalsLatin1 ? new byte[length] : null;
+        char[] chars = literalsLatin1 ? null : new char[length];
+        int pos = 0;
+        for (int i = 0; ; i++) {
+            String literal = literals[i];
+            if (bytes != null) {
+                System.arraycopy(literalBytes[i], 0, bytes, pos, literal.length());
+            } else {
+                literal.getChars(0, literal.length(), chars, pos);
+            }
+            pos += literal.length();
+            if (i == slot_num) {
+                break;
+            }
+            String str = converted != null ? converted[i] : null;
+            if (str == null && conversions[i] == 'd') {
+                long value = ((Number) args[i]).longValue();
+                pos = bytes != null ? putDigits(value, bytes, pos) : putDigits(value, chars, pos);
+                continue;
+            }
+            if (str == null) {
+                str = (String) args[i];
+            }
+            int str_length = str.length();
+            int copied = 0;
+            if (bytes != null) {
+                for (; copied < str_length; copied++) {
+                    char c = str.charAt(copied);
+                    if (c > 0xFF) {
+                        break;
+                    }
+                    bytes[pos + copied] = (byte) c;
+                }
+                if (copied < str_length) {
+//                    first char outside Latin-1, everything from here on is written as UTF-16
+                    chars = inflate(bytes, pos + copied);
+                    bytes = null;
+                }
+            }
+            if (copied < str_length) {
+                str.getChars(copied, str_length, chars, pos + copied);
+            }
+            pos += str_length;
+        }
+        return bytes != null ? new String(bytes, StandardCharsets.ISO_8859_1) : new String(chars);
+    }
+
+    /**
+     * Appends the rendered template to {@code rope} segment by segment, without building the whole line first.
+     */
+    public ArrayRope appendTo(ArrayRope rope, Object... args) {
+        checkArguments(args);
+        for (int i = 0; i < conversions.length; i++) {
+            if (!literals[i].isEmpty()) {
+                rope.append(literals[i]);
+            }
+            Object arg = args[i];
+            String str = argumentString(i, arg);
+            rope.append(str != null ? str : Long.toString(((Number) arg).longValue()));
+        }
+        if (!literals[conversions.length].isEmpty()) {
+            rope.append(literals[conversions.length]);
+        }
+        return rope;
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
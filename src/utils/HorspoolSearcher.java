@@ -0,0 +1,57 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Boyer-Moore-Horspool searcher. The bad-char table has one slot per low byte of a char:
+ * exact for Latin-1 patterns, and for other chars a slot keeps the smallest shift of every char mapping to it,
+ * which is still safe.
+ */
+public final class HorspoolSearcher implements Searcher {
+    private static final int TABLE_SIZE = 256;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private final char[] pattern;
+    private final int[] shifts;
+
+    public HorspoolSearcher(CharSequence pattern) {
+        this.pattern = pattern.toString().toCharArray();
+        int pattern_length = this.pattern.length;
+        shifts = new int[TABLE_SIZE];
+        Arrays.fill(shifts, Math.max(pattern_length, 1));
+//        later chars have smaller shifts, so colliding chars end up with the smallest one
+        for (int i = 0; i < pattern_length - 1; i++) {
+            shifts[this.pattern[i] & TABLE_MASK] = pattern_length - 1 - i;
+        }
+    }
+
+    @Override
+    public int patternLength() {
+        return pattern.length;
+    }
+
+    @Override
+    public int indexOf(CharSequence text, int from) {
+        int pattern_length = pattern.length;
+        int last_start = text.length() - pattern_length;
+        from = Math.max(from, 0);
+        if (pattern_length == 0) {
+            return Math.min(from, text.length());
+        }
+        char last = pattern[pattern_length - 1];
+        for (int index = from; index <= last_start; ) {
+            char c = text.charAt(index + pattern_length - 1);
+            if (c == last) {
+                int i = 0;
+                while (i < pattern_length - 1 && text.charAt(index + i) == pattern[i]) {
+                    i++;
+                }
+                if (i == pattern_length - 1) {
+                    return index;
+                }
+            }
+            index += shifts[c & TABLE_MASK];
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,296 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * N-gram inverted index answering "which strings contain this substring" over a changing corpus.
+ * Every n-gram maps to the ascending ids of the strings containing it, stored as varint-encoded deltas
+ * in one byte[] per gram. A query intersects the lists of its grams, smallest first,
+ * and only the surviving candidates are checked with {@code String.contains}.
+ * Queries shorter than n cannot use the index and scan the corpus.
+ * Removed ids leave stale list entries behind, which are skipped on verification and dropped
+ * by a rebuild once they make up half of all entries. Not thread-safe.
+ */
+public final class NGramIndex {
+    private static final int MAX_N = 3;
+    private static final int INITIAL_TABLE_SIZE = 1024;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = -1;
+
+    private static final class Postings {
+        byte[] data = new byte[4];
+        int length;
+        int count;
+        int last = -1;
+
+        void add(int id) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int delta = id - last;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = id;
+            count++;
+        }
+    }
+
+    private final int n;
+    private String[] strings = new String[INITIAL_CAPACITY];
+//    posting entries each id added, its distinct grams, so remove() knows how many go stale
+    private int[] entryCounts = new int[INITIAL_CAPACITY];
+    private int idCount;
+    private int liveCount;
+//    open addressing on the packed gram, gram chars are 16 bits each so a packed gram is never EMPTY
+    private long[] gramKeys;
+    private Postings[] gramPostings;
+    private int gramCount;
+    private long entryCount;
+    private long staleEntryCount;
+
+    public NGramIndex(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("n must be between 1 and " + MAX_N + ", got " + n);
+        }
+        this.n = n;
+        gramKeys = new long[INITIAL_TABLE_SIZE];
+        Arrays.fill(gramKeys, EMPTY);
+        gramPostings = new Postings[INITIAL_TABLE_SIZE];
+    }
+
+    public NGramIndex(int n, String... corpus) {
+        this(n);
+        strings = new String[Math.max(corpus.length, INITIAL_CAPACITY)];
+        entryCounts = new int[strings.length];
+        for (String s : corpus) {
+            add(s);
+        }
+    }
+
+    /**
+     * Number of strings in the index, removed ones excluded.
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    public String get(int id) {
+        return id >= 0 && id < idCount ? strings[id] : null;
+    }
+
+    /**
+     * Bytes used by the encoded posting lists.
+     */
+    public long postingBytes() {
+        long bytes = 0;
+        for (Postings postings : gramPostings) {
+            if (postings != null) {
+                bytes += postings.length;
+            }
+        }
+        return bytes;
+    }
+
+    private long gramAt(CharSequence s, int start) {
+        long gram = 0;
+        for (int i = start; i < start + n; i++) {
+            gram = (gram << 16) | s.charAt(i);
+        }
+        return gram;
+    }
+
+    private int slot(long gram) {
+        long hash = gram * 0x9E3779B97F4A7C15L;
+        int mask = gramKeys.length - 1;
+//        the top log2(table size) bits are the best mixed ones of a multiplicative hash
+        int slot = (int) (hash >>> Long.numberOfLeadingZeros(mask));
+        while (gramKeys[slot] != EMPTY && gramKeys[slot] != gram) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private Postings postingsOf(long gram) {
+        return gramPostings[slot(gram)];
+    }
+
+    private void growTable() {
+        long[] old_keys = gramKeys;
+        Postings[] old_postings = gramPostings;
+        gramKeys = new long[old_keys.length * 2];
+        Arrays.fill(gramKeys, EMPTY);
+        gramPostings = new Postings[old_keys.length * 2];
+        for (int i = 0; i < old_keys.length; i++) {
+            if (old_keys[i] != EMPTY) {
+                int slot = slot(old_keys[i]);
+                gramKeys[slot] = old_keys[i];
+                gramPostings[slot] = old_postings[i];
+            }
+        }
+    }
+
+    private int index(String s, int id) {
+        int added = 0;
+        for (int i = 0; i + n <= s.length(); i++) {
+            long gram = gramAt(s, i);
+            int slot = slot(gram);
+            Postings postings = gramPostings[slot];
+            if (postings == null) {
+                postings = new Postings();
+                gramKeys[slot] = gram;
+                gramPostings[slot] = postings;
+                if (++gramCount * 2 > gramKeys.length) {
+                    growTable();
+                }
+            }
+//            a gram repeated within the same string is listed once
+            if (postings.last != id) {
+                postings.add(id);
+                added++;
+            }
+        }
+        entryCount += added;
+        return added;
+    }
+
+    /**
+     * Adds {@code s} and returns its id, ids are handed out in ascending order and never reused.
+     */
+    public int add(String s) {
+        if (idCount == strings.length) {
+            strings = Arrays.copyOf(strings, strings.length * 2);
+            entryCounts = Arrays.copyOf(entryCounts, strings.length);
+        }
+        int id = idCount++;
+        strings[id] = s;
+        liveCount++;
+        entryCounts[id] = index(s, id);
+        return id;
+    }
+
+    public boolean remove(int id) {
+        if (id < 0 || id >= idCount || strings[id] == null) {
+            return false;
+        }
+        strings[id] = null;
+        liveCount--;
+        staleEntryCount += entryCounts[id];
+        entryCounts[id] = 0;
+        if (staleEntryCount * 2 > entryCount) {
+            rebuild();
+        }
+        return true;
+    }
+
+    private void rebuild() {
+        Arrays.fill(gramKeys, EMPTY);
+        Arrays.fill(gramPostings, null);
+        gramCount = 0;
+        entryCount = 0;
+        staleEntryCount = 0;
+        for (int id = 0; id < idCount; id++) {
+            if (strings[id] != null) {
+                entryCounts[id] = index(strings[id], id);
+            }
+        }
+    }
+
+    private static int[] decode(Postings postings) {
+        int[] ids = new int[postings.count];
+        int position = 0;
+        int id = -1;
+        for (int i = 0; i < ids.length; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = postings.data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private static int intersect(int[] candidates, int candidateNum, Postings postings) {
+        int kept = 0;
+        int position = 0;
+        int id = -1;
+        int remaining = postings.count;
+        for (int i = 0; i < candidateNum; i++) {
+            int candidate = candidates[i];
+            while (id < candidate) {
+                if (remaining == 0) {
+                    return kept;
+                }
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = postings.data[position++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                id += delta;
+                remaining--;
+            }
+            if (id == candidate) {
+                candidates[kept++] = candidate;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Ids of all strings containing {@code query}, ascending.
+     */
+    public int[] find(String query) {
+        if (query.length() < n) {
+            int[] found = new int[INITIAL_CAPACITY];
+            int found_num = 0;
+            for (int id = 0; id < idCount; id++) {
+                if (strings[id] != null && strings[id].contains(query)) {
+                    if (found_num == found.length) {
+                        found = Arrays.copyOf(found, found_num * 2);
+                    }
+                    found[found_num++] = id;
+                }
+            }
+            return Arrays.copyOf(found, found_num);
+        }
+        int gram_num = query.length() - n + 1;
+        Postings[] lists = new Postings[gram_num];
+        for (int i = 0; i < gram_num; i++) {
+            lists[i] = postingsOf(gramAt(query, i));
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (x, y) -> Integer.compare(x.count, y.count));
+        int[] candidates = decode(lists[0]);
+        int candidate_num = candidates.length;
+        for (int i = 1; i < gram_num && candidate_num > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                candidate_num = intersect(candidates, candidate_num, lists[i]);
+            }
+        }
+//        the grams only say the query may occur, the string itself decides
+        int found_num = 0;
+        for (int i = 0; i < candidate_num; i++) {
+            String s = strings[candidates[i]];
+            if (s != null && s.contains(query)) {
+                candidates[found_num++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(candidates, found_num);
+    }
+
+    public int count(String query) {
+        return find(query).length;
+    }
+}
@@ -0,0 +1,173 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded, thread-safe cache of compiled {@link Pattern}s.
+ * Entries are spread over lock-striped LRU segments, so threads looking up different regexes rarely contend,
+ * and compilation happens outside any lock. Hit, miss and eviction counts are kept in {@link LongAdder}s.
+ */
+public final class PatternCache {
+    private static final int DEFAULT_MAXIMUM_SIZE = 1024;
+    private static final int DEFAULT_STRIPES = 16;
+    private static final PatternCache SHARED = new PatternCache(DEFAULT_MAXIMUM_SIZE);
+
+    private static final class Key {
+        final String regex;
+        final int flags;
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && key.flags == flags && key.regex.equals(regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return regex.hashCode() * 31 + flags;
+        }
+    }
+
+    private final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+//        access-ordered, so the first entry is the least recently used one
+        private final LinkedHashMap<Key, Pattern> entries = new LinkedHashMap<>(16, 0.75f, true);
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        Pattern get(Key key) {
+            return entries.get(key);
+        }
+
+        Pattern putIfAbsent(Key key, Pattern pattern) {
+            Pattern present = entries.putIfAbsent(key, pattern);
+            if (present == null && entries.size() > capacity) {
+                Iterator<Key> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+            return present;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        void clear() {
+            entries.clear();
+        }
+    }
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PatternCache(int maximumSize) {
+        this(maximumSize, DEFAULT_STRIPES);
+    }
+
+    public PatternCache(int maximumSize, int stripes) {
+        if (maximumSize <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("maximum size and stripes must be positive");
+        }
+        stripes = Math.min(stripes, maximumSize);
+        segments = new Segment[stripes];
+        for (int i = 0; i < stripes; i++) {
+//            spread the capacity so the segments add up to maximumSize
+            segments[i] = new Segment(maximumSize / stripes + (i < maximumSize % stripes ? 1 : 0));
+        }
+    }
+
+    public static PatternCache shared() {
+        return SHARED;
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[Math.floorMod(hash, segments.length)];
+    }
+
+    public Pattern get(String regex) {
+        return get(regex, 0);
+    }
+
+    public Pattern get(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        Segment segment = segmentFor(key);
+        Pattern pattern;
+        segment.lock.lock();
+        try {
+            pattern = segment.get(key);
+        } finally {
+            segment.lock.unlock();
+        }
+        if (pattern != null) {
+            hits.increment();
+            return pattern;
+        }
+        misses.increment();
+        Pattern compiled = Pattern.compile(regex, flags);
+        segment.lock.lock();
+        try {
+//            another thread may have compiled the same regex meanwhile, keep the first one
+            pattern = segment.putIfAbsent(key, compiled);
+        } finally {
+            segment.lock.unlock();
+        }
+        return pattern != null ? pattern : compiled;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PatternCache{size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount()
+                + ", evictions=" + evictionCount() + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package utils;
+
+/**
+ * Substring searcher compiled once for one pattern.
+ * Implementations are immutable, so one searcher can be shared by any number of threads
+ * and reused for every occurrence without recomputing its tables.
+ */
+public interface Searcher {
+//    patterns with fewer distinct chars than this fraction of their length count as repetitive
+    int REPETITIVE_ALPHABET_RATIO = 4;
+    int TWO_WAY_MIN_LENGTH = 16;
+
+    int patternLength();
+
+    /**
+     * Index of the first occurrence of the pattern in {@code text} at or after {@code from}, -1 if there is none.
+     */
+    int indexOf(CharSequence text, int from);
+
+    default int indexOf(CharSequence text) {
+        return indexOf(text, 0);
+    }
+
+    /**
+     * Picks Two-Way for long patterns over a small alphabet, where Horspool's bad-char shifts stay short
+     * and its worst case is quadratic, and Horspool for everything else.
+     */
+    static Searcher of(CharSequence pattern) {
+        int length = pattern.length();
+        if (length >= TWO_WAY_MIN_LENGTH
+                && pattern.chars().distinct().count() * REPETITIVE_ALPHABET_RATIO < length) {
+            return new TwoWaySearcher(pattern);
+        }
+        return new HorspoolSearcher(pattern);
+    }
+}
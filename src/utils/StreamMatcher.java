@@ -0,0 +1,150 @@
+package utils;
+
+import CustomString.ArrayRope;
+
+/**
+ * Push-style matcher for one literal pattern over input that arrives in chunks.
+ * The pattern is compiled once into a KMP automaton ({@link #compile(CharSequence)}), which is immutable and shared.
+ * Each stream gets its own matcher holding only the automaton state and the absolute position,
+ * so {@link #feed(CharSequence)} never rescans earlier chunks and still reports matches spanning chunk boundaries.
+ * Overlapping matches are all reported, in order of their end.
+ */
+public final class StreamMatcher {
+    public interface MatchListener {
+        void onMatch(long offset);
+    }
+
+    private static final int DENSE_SIZE = 256;
+//    patterns longer than this only keep the failure function, the dense table would cost 1 KiB per char
+    private static final int DENSE_MAX_PATTERN = 1024;
+
+    public static final class Automaton {
+        private final char[] pattern;
+//        fail[j]: length of the longest proper border of the first j pattern chars
+        private final int[] fail;
+//        transitions for Latin-1 text chars, row per state, null for long patterns
+        private final int[] dense;
+
+        private Automaton(CharSequence pattern) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("pattern is empty");
+            }
+            this.pattern = pattern.toString().toCharArray();
+            int pattern_length = this.pattern.length;
+            fail = new int[pattern_length + 1];
+            for (int j = 1, border = 0; j < pattern_length; j++) {
+                while (border > 0 && this.pattern[j] != this.pattern[border]) {
+                    border = fail[border];
+                }
+                if (this.pattern[j] == this.pattern[border]) {
+                    border++;
+                }
+                fail[j + 1] = border;
+            }
+            if (pattern_length > DENSE_MAX_PATTERN) {
+                dense = null;
+                return;
+            }
+            dense = new int[(pattern_length + 1) * DENSE_SIZE];
+            for (int state = 0; state <= pattern_length; state++) {
+//                a mismatch behaves like the border state, whose row is already filled since fail[state] < state
+                int border_row = fail[state] * DENSE_SIZE;
+                for (int c = 0; c < DENSE_SIZE; c++) {
+                    if (state < pattern_length && this.pattern[state] == c) {
+                        dense[state * DENSE_SIZE + c] = state + 1;
+                    } else {
+                        dense[state * DENSE_SIZE + c] = state == 0 ? 0 : dense[border_row + c];
+                    }
+                }
+            }
+        }
+
+        public int patternLength() {
+            return pattern.length;
+        }
+
+        int step(int state, char c) {
+            if (dense != null && c < DENSE_SIZE) {
+                return dense[state * DENSE_SIZE + c];
+            }
+            while (true) {
+                if (state < pattern.length && pattern[state] == c) {
+                    return state + 1;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+
+        public StreamMatcher matcher(MatchListener listener) {
+            return new StreamMatcher(this, listener);
+        }
+    }
+
+    private final Automaton automaton;
+    private final MatchListener listener;
+    private int state;
+    private long position;
+
+    private StreamMatcher(Automaton automaton, MatchListener listener) {
+        this.automaton = automaton;
+        this.listener = listener;
+    }
+
+    public static Automaton compile(CharSequence pattern) {
+        return new Automaton(pattern);
+    }
+
+    public static StreamMatcher of(CharSequence pattern, MatchListener listener) {
+        return compile(pattern).matcher(listener);
+    }
+
+    /**
+     * Number of chars fed so far, the absolute offset the next chunk starts at.
+     */
+    public long position() {
+        return position;
+    }
+
+    public void reset() {
+        state = 0;
+        position = 0;
+    }
+
+    private void advance(char c, long offset) {
+        state = automaton.step(state, c);
+        if (state == automaton.pattern.length) {
+            listener.onMatch(offset - state + 1);
+        }
+    }
+
+    /**
+     * Scans {@code chunk} as the continuation of everything fed before, reporting the start offset of every match.
+     */
+    public StreamMatcher feed(CharSequence chunk) {
+        long offset = position;
+        if (chunk instanceof ArrayRope rope) {
+            ArrayRope.Cursor cursor = rope.cursor();
+            while (cursor.hasNext()) {
+                advance(cursor.nextChar(), offset++);
+            }
+        } else {
+            for (int i = 0; i < chunk.length(); i++) {
+                advance(chunk.charAt(i), offset++);
+            }
+        }
+        position = offset;
+        return this;
+    }
+
+    public StreamMatcher feed(char[] chunk, int offset, int count) {
+        long absolute = position;
+        for (int i = offset; i < offset + count; i++) {
+            advance(chunk[i], absolute++);
+        }
+        position = absolute;
+        return this;
+    }
+}
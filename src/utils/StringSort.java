@@ -0,0 +1,188 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multikey quicksort for strings (J. Bentley and R. Sedgewick, "Fast algorithms for sorting and searching strings").
+ * Each partitioning step looks at one char position only, so a shared prefix is read once per level
+ * instead of once per comparison as with {@code String.compareTo}. Small ranges fall back to an insertion sort
+ * that compares from the current depth. The order is the same as {@link String#compareTo}.
+ */
+public final class StringSort {
+    private static final int INSERTION_THRESHOLD = 16;
+//    ranges smaller than this are not worth a fork-join task
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private StringSort() {
+    }
+
+    public static void sort(String[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(String[] a, int fromIndex, int toIndex) {
+        checkRange(a.length, fromIndex, toIndex);
+        multikeySort(a, fromIndex, toIndex, 0);
+    }
+
+    public static void parallelSort(String[] a) {
+        parallelSort(a, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sorts {@code a} with the tasks running in {@code pool}, its parallelism bounds the number of threads used.
+     */
+    public static void parallelSort(String[] a, ForkJoinPool pool) {
+        if (a.length < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            multikeySort(a, 0, a.length, 0);
+            return;
+        }
+        pool.invoke(new SortTask(a, 0, a.length, 0));
+    }
+
+    private static void checkRange(int length, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex || toIndex > length) {
+            throw new ArrayIndexOutOfBoundsException("from " + fromIndex + ", to " + toIndex + ", length " + length);
+        }
+    }
+
+    private static int charAt(String s, int depth) {
+        return depth < s.length() ? s.charAt(depth) : -1;
+    }
+
+    private static void swap(String[] a, int i, int j) {
+        String tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static int median(int a, int b, int c) {
+        return a < b ? (b < c ? b : Math.max(a, c)) : (a < c ? a : Math.max(b, c));
+    }
+
+    /**
+     * Compares two strings known to be equal up to {@code depth}.
+     */
+    private static int compareFrom(String x, String y, int depth) {
+        int limit = Math.min(x.length(), y.length());
+        for (int i = depth; i < limit; i++) {
+            char x_char = x.charAt(i);
+            char y_char = y.charAt(i);
+            if (x_char != y_char) {
+                return x_char - y_char;
+            }
+        }
+        return x.length() - y.length();
+    }
+
+    private static void insertionSort(String[] a, int from, int to, int depth) {
+        for (int i = from + 1; i < to; i++) {
+            String key = a[i];
+            int j = i - 1;
+            while (j >= from && compareFrom(a[j], key, depth) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    /**
+     * Three-way partitions [from, to) by the char at {@code depth}, the returned bounds (packed as lt << 32 | gt)
+     * delimit the range whose char equals the pivot.
+     */
+    private static long partition(String[] a, int from, int to, int depth) {
+        int pivot = median(charAt(a[from], depth), charAt(a[(from + to) >>> 1], depth), charAt(a[to - 1], depth));
+        int lt = from;
+        int gt = to;
+        int i = from;
+        while (i < gt) {
+            int c = charAt(a[i], depth);
+            if (c < pivot) {
+                swap(a, lt++, i++);
+            } else if (c > pivot) {
+                swap(a, i, --gt);
+            } else {
+                i++;
+            }
+        }
+        return ((long) lt << 32) | gt;
+    }
+
+    private static void multikeySort(String[] a, int from, int to, int depth) {
+//        recurse on the smaller-char and larger-char ranges, loop on the equal range one char deeper,
+//        so a long shared prefix does not turn into deep recursion
+        while (to - from > INSERTION_THRESHOLD) {
+            long bounds = partition(a, from, to, depth);
+            int lt = (int) (bounds >>> 32);
+            int gt = (int) bounds;
+            multikeySort(a, from, lt, depth);
+            multikeySort(a, gt, to, depth);
+            if (lt < gt && charAt(a[lt], depth) < 0) {
+//                every string in the equal range ended at depth, they are all equal
+                return;
+            }
+            from = lt;
+            to = gt;
+            depth++;
+        }
+        insertionSort(a, from, to, depth);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SortTask extends RecursiveAction {
+        private final String[] a;
+        private final int from;
+        private final int to;
+        private final int depth;
+
+        SortTask(String[] a, int from, int to, int depth) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            List<SortTask> forked = new ArrayList<>();
+            int from = this.from;
+            int to = this.to;
+            int depth = this.depth;
+//            same shape as multikeySort: the outer ranges become tasks, this task goes on with the equal range
+            while (to - from >= PARALLEL_THRESHOLD) {
+                long bounds = partition(a, from, to, depth);
+                int lt = (int) (bounds >>> 32);
+                int gt = (int) bounds;
+                forked.add(fork(from, lt, depth));
+                forked.add(fork(gt, to, depth));
+                if (lt < gt && charAt(a[lt], depth) < 0) {
+                    from = to = lt;
+                    break;
+                }
+                from = lt;
+                to = gt;
+                depth++;
+            }
+            multikeySort(a, from, to, depth);
+            for (SortTask task : forked) {
+                if (task != null) {
+                    task.join();
+                }
+            }
+        }
+
+        private SortTask fork(int from, int to, int depth) {
+            if (to - from < PARALLEL_THRESHOLD) {
+                multikeySort(a, from, to, depth);
+                return null;
+            }
+            SortTask task = new SortTask(a, from, to, depth);
+            task.fork();
+            return task;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Crochemore-Perrin Two-Way searcher: linear time with constant extra space whatever the pattern,
+ * see M. Crochemore and D. Perrin, "Two-way string-matching".
+ * The pattern is split at a critical factorization, the right part is matched left to right and
+ * the left part right to left. Periodic patterns remember the matched prefix across shifts.
+ */
+public final class TwoWaySearcher implements Searcher {
+    private final char[] pattern;
+//    last index of the left half of the critical factorization
+    private final int split;
+    private final int period;
+    private final boolean periodic;
+
+    public TwoWaySearcher(CharSequence pattern) {
+        this.pattern = pattern.toString().toCharArray();
+        int pattern_length = this.pattern.length;
+        long forward = maximalSuffix(this.pattern, false);
+        long backward = maximalSuffix(this.pattern, true);
+        int forward_split = (int) (forward >> 32);
+        int backward_split = (int) (backward >> 32);
+        int split_period;
+        if (forward_split > backward_split) {
+            split = forward_split;
+            split_period = (int) forward;
+        } else {
+            split = backward_split;
+            split_period = (int) backward;
+        }
+        periodic = split_period + split + 1 <= pattern_length
+                && Arrays.equals(this.pattern, 0, split + 1, this.pattern, split_period, split_period + split + 1);
+        period = periodic ? split_period : Math.max(split + 1, pattern_length - split - 1) + 1;
+    }
+
+    /**
+     * Maximal suffix of {@code x} under the normal or the reversed char order,
+     * packed as (start - 1) in the high and its period in the low 32 bits.
+     */
+    private static long maximalSuffix(char[] x, boolean reversed) {
+        int suffix = -1;
+        int j = 0;
+        int k = 1;
+        int suffix_period = 1;
+        while (j + k < x.length) {
+            char a = x[j + k];
+            char b = x[suffix + k];
+            if (reversed ? a > b : a < b) {
+                j += k;
+                k = 1;
+                suffix_period = j - suffix;
+            } else if (a == b) {
+                if (k != suffix_period) {
+                    k++;
+                } else {
+                    j += suffix_period;
+                    k = 1;
+                }
+            } else {
+                suffix = j;
+                j = suffix + 1;
+                k = suffix_period = 1;
+            }
+        }
+        return ((long) suffix << 32) | suffix_period;
+    }
+
+    @Override
+    public int patternLength() {
+        return pattern.length;
+    }
+
+    @Override
+    public int indexOf(CharSequence text, int from) {
+        int pattern_length = pattern.length;
+        int last_start = text.length() - pattern_length;
+        from = Math.max(from, 0);
+        if (pattern_length == 0) {
+            return Math.min(from, text.length());
+        }
+        if (periodic) {
+//            memory: prefix of the pattern already known to match after a shift by the period
+            int memory = -1;
+            for (int index = from; index <= last_start; ) {
+                int i = Math.max(split, memory) + 1;
+                while (i < pattern_length && pattern[i] == text.charAt(index + i)) {
+                    i++;
+                }
+                if (i >= pattern_length) {
+                    i = split;
+                    while (i > memory && pattern[i] == text.charAt(index + i)) {
+                        i--;
+                    }
+                    if (i <= memory) {
+                        return index;
+                    }
+                    index += period;
+                    memory = pattern_length - period - 1;
+                } else {
+                    index += i - split;
+                    memory = -1;
+                }
+            }
+        } else {
+            for (int index = from; index <= last_start; ) {
+                int i = split + 1;
+                while (i < pattern_length && pattern[i] == text.charAt(index + i)) {
+                    i++;
+                }
+                if (i >= pattern_length) {
+                    i = split;
+                    while (i >= 0 && pattern[i] == text.charAt(index + i)) {
+                        i--;
+                    }
+                    if (i < 0) {
+                        return index;
+                    }
+                    index += period;
+                } else {
+                    index += i - split;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -12,4 +12,15 @@ public class Utils {
         }
         return new String(chars);
     }
+
+    /**
+     * Printable ASCII only, unlike makeRandomString whose chars are mostly outside Latin-1.
+     */
+    public static String makeAsciiString(int stringSize, Random rand) {
+        char[] chars = new char[stringSize];
+        for (int i = 0; i < stringSize; i++) {
+            chars[i] = (char) (32 + rand.nextInt(95));
+        }
+        return new String(chars);
+    }
 }
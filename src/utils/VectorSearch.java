@@ -0,0 +1,132 @@
+package utils;
+
+import CustomString.ArrayRope;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Substring search with the Vector API (needs {@code --add-modules jdk.incubator.vector}).
+ * Every step compares a full vector of candidate positions against the first and the last pattern char,
+ * only positions where both match are verified, see W. Mula, "SIMD-friendly algorithms for substring searching".
+ * Works on Latin-1 {@code byte[]} and UTF-16 {@code char[]}, any other {@code CharSequence} with bulk
+ * getChars (String, StringBuilder, ArrayRope pieces) is searched through a reusable block buffer.
+ */
+public final class VectorSearch {
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORT_SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int BLOCK_SIZE = 4096;
+
+    private VectorSearch() {
+    }
+
+    public static int indexOf(byte[] text, int from, int to, byte[] pattern) {
+        int pattern_length = pattern.length;
+        from = Math.max(from, 0);
+        if (pattern_length == 0) {
+            return from <= to ? from : -1;
+        }
+        int last_start = to - pattern_length;
+        int i = from;
+        if (pattern_length > 1) {
+            ByteVector first = ByteVector.broadcast(BYTE_SPECIES, pattern[0]);
+            ByteVector last = ByteVector.broadcast(BYTE_SPECIES, pattern[pattern_length - 1]);
+            int lanes = BYTE_SPECIES.length();
+            for (; i + lanes - 1 <= last_start; i += lanes) {
+                VectorMask<Byte> candidates = ByteVector.fromArray(BYTE_SPECIES, text, i).eq(first)
+                        .and(ByteVector.fromArray(BYTE_SPECIES, text, i + pattern_length - 1).eq(last));
+                long bits = candidates.toLong();
+                while (bits != 0) {
+                    int start = i + Long.numberOfTrailingZeros(bits);
+                    if (Arrays.equals(text, start + 1, start + pattern_length - 1, pattern, 1, pattern_length - 1)) {
+                        return start;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+        for (; i <= last_start; i++) {
+            if (text[i] == pattern[0] && Arrays.equals(text, i, i + pattern_length, pattern, 0, pattern_length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int indexOf(char[] text, int from, int to, char[] pattern) {
+        int pattern_length = pattern.length;
+        from = Math.max(from, 0);
+        if (pattern_length == 0) {
+            return from <= to ? from : -1;
+        }
+        int last_start = to - pattern_length;
+        int i = from;
+        if (pattern_length > 1) {
+            ShortVector first = ShortVector.broadcast(SHORT_SPECIES, (short) pattern[0]);
+            ShortVector last = ShortVector.broadcast(SHORT_SPECIES, (short) pattern[pattern_length - 1]);
+            int lanes = SHORT_SPECIES.length();
+            for (; i + lanes - 1 <= last_start; i += lanes) {
+                VectorMask<Short> candidates = ShortVector.fromCharArray(SHORT_SPECIES, text, i).eq(first)
+                        .and(ShortVector.fromCharArray(SHORT_SPECIES, text, i + pattern_length - 1).eq(last));
+                long bits = candidates.toLong();
+                while (bits != 0) {
+                    int start = i + Long.numberOfTrailingZeros(bits);
+                    if (Arrays.equals(text, start + 1, start + pattern_length - 1, pattern, 1, pattern_length - 1)) {
+                        return start;
+                    }
+                    bits &= bits - 1;
+                }
+            }
+        }
+        for (; i <= last_start; i++) {
+            if (text[i] == pattern[0] && Arrays.equals(text, i, i + pattern_length, pattern, 0, pattern_length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void copyBlock(CharSequence text, int from, int to, char[] dst) {
+        if (text instanceof String str) {
+            str.getChars(from, to, dst, 0);
+        } else if (text instanceof StringBuilder sb) {
+            sb.getChars(from, to, dst, 0);
+        } else if (text instanceof ArrayRope rope) {
+            rope.getChars(from, to, dst, 0);
+        } else {
+            for (int i = from; i < to; i++) {
+                dst[i - from] = text.charAt(i);
+            }
+        }
+    }
+
+    /**
+     * Searches {@code text} block by block: each block plus {@code pattern.length() - 1} chars of overlap
+     * is bulk-copied into one buffer and searched with {@link #indexOf(char[], int, int, char[])}.
+     */
+    public static int indexOf(CharSequence text, String pattern, int from) {
+        int length = text.length();
+        int pattern_length = pattern.length();
+        from = Math.max(from, 0);
+        if (pattern_length == 0) {
+            return Math.min(from, length);
+        }
+        if (from > length - pattern_length) {
+            return -1;
+        }
+        char[] pattern_chars = pattern.toCharArray();
+        char[] block = new char[Math.min(BLOCK_SIZE, length - from) + pattern_length - 1];
+        for (int block_start = from; block_start <= length - pattern_length; block_start += BLOCK_SIZE) {
+            int block_end = Math.min(block_start + BLOCK_SIZE + pattern_length - 1, length);
+            copyBlock(text, block_start, block_end, block);
+            int found = indexOf(block, 0, block_end - block_start, pattern_chars);
+            if (found >= 0) {
+                return block_start + found;
+            }
+        }
+        return -1;
+    }
+}